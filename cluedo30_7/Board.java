@@ -1,24 +1,46 @@
 package cluedo30_7;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 /**
- * The Board class handles initialising and printing the Hobby Detectives board.
+ * The Board class is one game's view of the Hobby Detectives board. The layout
+ * itself (cells, estates, packed arrays and distances) is a Layout shared by
+ * every game; a Board only adds who is standing where: one byte per path cell
+ * for its occupant, the same as a bitset for reachable(), a mask of seats per
+ * estate and each seat's cell, so both "where is this player" and "who is in
+ * this estate" are a single lookup. Packed indices are row * numCols + col throughout.
+ * Every enter() and leave() also updates the Zobrist hash of where everyone is.
  */
 public class Board {
+    /**
+     * The kinds of cell stored in the packed representation.
+     */
+    public static final byte PATH = 0, WALL = 1, ENTRANCE = 2, ESTATE = 3;
+
+    private final Layout layout;
     private final int numRows;
     private final int numCols;
-    private final Cell[][] cells;
+    private final byte[] kinds;     // Shared with the layout, never written to.
+    private final byte[] estateIds; // Shared with the layout, never written to.
+    private final long[] pathBits;
+    private final long[] entranceBits;
+    private final long[] notFirstCol;
+    private final long[] notLastCol;
+    private final Estate[] estates;
+
+    private final byte[] occupancy;
+    private final long[] occupiedBits;
+    private final Player[] players = new Player[4];
+    private final int[] locations = new int[4]; // [seat] packed index of each player's cell, see enter().
+    private final int[] estateMasks;            // [estate] mask of the seats of the players inside it.
+    private final long[] dirtyCells;  // Paths whose occupant changed since the last BoardRenderer frame.
+    private int dirtyEstates;         // Mask of estates whose occupants changed since then.
+    private final Zobrist zobrist;
+    private long hash;
 
-    /**
-     * 0 = Haunted House
-     * 1 = Manic Manor
-     * 2 = Calamity Castle
-     * 3 = Peril Palace
-     * 4 = Visitation Villa
-     */
-    private final Estate[] estates = new Estate[5];
-    public Estate[] estates(){return estates;}
     public static final String WALLSTRING = "##|";
     public enum Direction { UP, DOWN, LEFT, RIGHT }
 
@@ -30,11 +52,255 @@ public class Board {
             Direction.UP, "vv|", Direction.DOWN, "^^|",
             Direction.LEFT, ">>>", Direction.RIGHT, "<<<");
 
-    public Board(int rows, int cols) {
-        this.numRows = rows;
-        this.numCols = cols;
-        this.cells = new Cell[rows][cols];
-        this.initializeCells();
+    /**
+     * Constructs an empty board on the standard layout.
+     */
+    public Board() {
+        this(Layout.standard());
+    }
+
+    /**
+     * Constructs an empty board on the given layout. Only the occupancy is
+     * allocated; everything else is read from the layout.
+     *
+     * @param layout the shared layout to play on.
+     */
+    public Board(Layout layout) {
+        this.layout = layout;
+        this.numRows = layout.rows();
+        this.numCols = layout.cols();
+        this.kinds = layout.kinds();
+        this.estateIds = layout.estateIds();
+        this.pathBits = layout.pathBits();
+        this.entranceBits = layout.entranceBits();
+        this.notFirstCol = layout.notFirstCol();
+        this.notLastCol = layout.notLastCol();
+        this.estates = layout.estates();
+        this.occupancy = new byte[numRows * numCols];
+        this.occupiedBits = new long[pathBits.length];
+        this.dirtyCells = new long[pathBits.length];
+        this.estateMasks = new int[estates.length];
+        this.zobrist = layout.zobrist();
+    }
+
+    public Layout layout() { return layout; }
+    public Estate[] estates() { return estates; }
+    public int rows() { return numRows; }
+    public int cols() { return numCols; }
+
+    /**
+     * Returns the packed index of the cell at the given row and column.
+     *
+     * @param row   the Y coordinate of the cell.
+     * @param col   the X coordinate of the cell.
+     * @return index - row * cols() + col.
+     */
+    public int index(int row, int col) {
+        return row * numCols + col;
+    }
+
+    /**
+     * Getter method for the Zobrist hash of where every player is, kept up to
+     * date by enter() and leave().
+     */
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * Getter method for the kind of a cell.
+     *
+     * @param i the packed index of the cell.
+     * @return PATH, WALL, ENTRANCE or ESTATE.
+     */
+    public byte kind(int i) {
+        return kinds[i];
+    }
+
+    /**
+     * Getter method for the estate an entrance or estate cell belongs to.
+     *
+     * @param i the packed index of the cell.
+     * @return the cell's estate.
+     * @throws ArrayIndexOutOfBoundsException if the cell isn't part of an estate.
+     */
+    public Estate estateAt(int i) {
+        return estates[estateIds[i]];
+    }
+
+    /**
+     * Getter method for the index in estates() of the estate a cell belongs to.
+     *
+     * @param i the packed index of the cell.
+     * @return the estate's index, or -1 if the cell isn't an entrance or estate.
+     */
+    public int estateId(int i) {
+        return estateIds[i];
+    }
+
+    /**
+     * Getter method for the distances from every path cell to every estate,
+     * shared by all boards on this layout.
+     */
+    public DistanceField distances() {
+        return layout.distances();
+    }
+
+    /**
+     * Checks if a player can step onto a cell: paths need to be empty, while
+     * entrances and estates always have room.
+     *
+     * @param i the packed index of the cell.
+     * @return true if the cell can be entered.
+     */
+    public boolean isFree(int i) {
+        return kinds[i] == ESTATE || kinds[i] == ENTRANCE || (kinds[i] == PATH && occupancy[i] == 0);
+    }
+
+    /**
+     * Getter method for the player standing on a path cell.
+     *
+     * @param i the packed index of the cell.
+     * @return the player, or null if the cell is empty.
+     */
+    public Player occupant(int i) {
+        return occupancy[i] == 0 ? null : players[occupancy[i] - 1];
+    }
+
+    /**
+     * Puts a player on a cell. Stepping onto an entrance puts them in its estate,
+     * where they are placed on the estate's home cell (see Layout.home()) so
+     * their location is always a cell inside the estate.
+     *
+     * @param p the player to place.
+     * @param i the packed index of the cell.
+     * @throws IllegalStateException if the path is already occupied by another player.
+     * @throws IllegalCallerException if the cell is a wall.
+     */
+    public void enter(Player p, int i) {
+        switch (kinds[i]) {
+            case PATH -> {
+                if (occupancy[i] != 0) {
+                    throw new IllegalStateException("Adding a player to a filled Cell");
+                }
+                players[p.id()] = p;
+                locations[p.id()] = i;
+                occupancy[i] = (byte) (p.id() + 1);
+                occupiedBits[i >>> 6] |= 1L << i;
+                dirtyCells[i >>> 6] |= 1L << i;
+                hash ^= zobrist.location(p.id(), i);
+            }
+            case ENTRANCE, ESTATE -> {
+                players[p.id()] = p;
+                locations[p.id()] = layout.home(estateIds[i]);
+                estateMasks[estateIds[i]] |= 1 << p.id();
+                dirtyEstates |= 1 << estateIds[i];
+                hash ^= zobrist.location(p.id(), locations[p.id()]);
+            }
+            default -> throw new IllegalCallerException("Walls can't store players");
+        }
+    }
+
+    /**
+     * Takes a player off a cell.
+     *
+     * @param p the player to remove.
+     * @param i the packed index of the cell.
+     * @throws IllegalArgumentException if the specified Player is not in this cell.
+     * @throws IllegalCallerException if the cell is a wall.
+     */
+    public void leave(Player p, int i) {
+        switch (kinds[i]) {
+            case PATH -> {
+                if (occupancy[i] != p.id() + 1) {
+                    throw new IllegalArgumentException(p.name() + " is not in this cell");
+                }
+                occupancy[i] = 0;
+                occupiedBits[i >>> 6] &= ~(1L << i);
+                dirtyCells[i >>> 6] |= 1L << i;
+                hash ^= zobrist.location(p.id(), i);
+            }
+            case ENTRANCE, ESTATE -> {
+                if ((estateMasks[estateIds[i]] & (1 << p.id())) == 0) {
+                    throw new IllegalArgumentException(p.name() + " is not present");
+                }
+                estateMasks[estateIds[i]] &= ~(1 << p.id());
+                dirtyEstates |= 1 << estateIds[i];
+                hash ^= zobrist.location(p.id(), layout.home(estateIds[i]));
+            }
+            default -> throw new IllegalCallerException("Walls can't store players");
+        }
+    }
+
+    /**
+     * Getter method for where a player is.
+     *
+     * @param seat the player's seat.
+     * @return the packed index of their cell, the estate's home cell if they're in an estate.
+     */
+    public int location(int seat) {
+        return locations[seat];
+    }
+
+    /**
+     * Getter method for the estate a player is in.
+     *
+     * @param seat the player's seat.
+     * @return the estate's index in estates(), or -1 if they're on a path.
+     */
+    public int estateOf(int seat) {
+        return estateIds[locations[seat]];
+    }
+
+    /**
+     * Getter method for the seats of the players in an estate.
+     *
+     * @param estate the estate's index in estates().
+     * @return a mask with bit i set if seat i is in the estate.
+     */
+    public int occupantMask(int estate) {
+        return estateMasks[estate];
+    }
+
+    /**
+     * Getter method for the players in an estate.
+     *
+     * @param estate the estate's index in estates().
+     * @return the estate's occupants, in seat order.
+     */
+    public List<Player> occupants(int estate) {
+        List<Player> occupants = new ArrayList<>();
+        for (int m = estateMasks[estate]; m != 0; m &= m - 1) {
+            occupants.add(players[Integer.numberOfTrailingZeros(m)]);
+        }
+        return occupants;
+    }
+
+    /*
+     * Getter methods for what has changed since BoardRenderer last drew the
+     * board: a bitset of path cells over packed indices and a mask of estates.
+     */
+    long[] dirtyCells() { return dirtyCells; }
+    int dirtyEstates()  { return dirtyEstates; }
+
+    /**
+     * Forgets what has changed, once it has been drawn.
+     */
+    void clearDirty() {
+        Arrays.fill(dirtyCells, 0);
+        dirtyEstates = 0;
+    }
+
+    /**
+     * Returns how a single non-estate cell is drawn: its occupant if there is one.
+     *
+     * @param row   the Y coordinate of the cell.
+     * @param col   the X coordinate of the cell.
+     * @return the cell's 3 characters.
+     */
+    String cellString(int row, int col) {
+        Player occupant = occupant(index(row, col));
+        return occupant != null ? occupant + "|" : cellAt(row, col).toString();
     }
 
     /**
@@ -45,196 +311,175 @@ public class Board {
      * @return Cell the desired Cell
      */
     public Cell cellAt(int row, int col) {
-        return cells[row][col];
+        return layout.cellAt(row, col);
     }
 
     /**
-     * Fills a rectangular area with the specified cell type within the given range of rows and columns.
+     * Getter method for the cells a player leaving an estate can step onto.
      *
-     * @param startRow The starting row index (inclusive) of the area to fill.
-     * @param startCol The starting column index (inclusive) of the area to fill.
-     * @param endRow The ending row index (exclusive) of the area to fill.
-     * @param endCol The ending column index (exclusive) of the area to fill.
-     * @param cell The type of cell to fill the area with.
-     * @throws IllegalArgumentException if the provided range is invalid (out of bounds).
+     * @param estate the estate's index in estates().
+     * @return the packed indices of the cells its Estate.exit() leads to.
      */
-    private void fill(int startRow, int startCol, int endRow, int endCol, Cell cell) {
-        if (startRow > endRow || endRow > numRows || startCol > endCol || endCol > numCols) {
-            throw new IllegalArgumentException();
-        }
-        for (int row = startRow; row < endRow; row++) {
-            for (int col = startCol; col < endCol; col++) {
-                cells[row][col] = cell.copy();
-            }
-        }
+    public int[] exits(int estate) {
+        return layout.exits(estate);
     }
 
     /**
-     * Initializes the cells of the board and sets up the estates and entrances.
+     * Finds every path cell and estate a player could end their move on with the
+     * given roll, stopping early or not. Like Player.turn, a move can't revisit
+     * a cell, can't land on another player, steps from an entrance straight into
+     * its estate and steps from an estate onto the cell outside one of its entrances.
+     * <p>
+     * The frontier of cells reached after each move is a bitset over packed
+     * indices, so each move is a handful of word shifts and masks for the whole
+     * board rather than a queue of cells.
+     *
+     * @param start the packed index of the player's cell (any cell of an estate if they're in one).
+     * @param roll  how many moves the player has.
+     * @param out   the set to fill in, emptied first.
      */
-    private void initializeCells() {
-        for (int row = 0; row < numRows; row++) {
-            for (int col = 0; col < numCols; col++) {
-                cells[row][col] = new Path(row, col);
-            }
+    public void reachable(int start, int roll, Reachable out) {
+        reachable(layout, occupiedBits, start, roll, out);
+    }
+
+    /**
+     * Does the work of reachable() for any layout and set of occupied path
+     * cells, so a GameState can find its moves without a Board.
+     *
+     * @param layout       the layout to move on.
+     * @param occupiedBits a bitset over packed indices of the path cells other players are on.
+     * @param start        the packed index of the player's cell.
+     * @param roll         how many moves the player has.
+     * @param out          the set to fill in, emptied first.
+     */
+    static void reachable(Layout layout, long[] occupiedBits, int start, int roll, Reachable out) {
+        byte[] kinds = layout.kinds();
+        byte[] estateIds = layout.estateIds();
+        long[] pathBits = layout.pathBits();
+        long[] entranceBits = layout.entranceBits();
+        long[] notFirstCol = layout.notFirstCol();
+        long[] notLastCol = layout.notLastCol();
+        int numCols = layout.cols();
+        out.clear();
+        long[] reached = out.cells();
+        long[] frontier = out.frontier();
+        long[] next = out.next();
+        int estateFrontier = 0;
+        int visitedEstates = 0;
+        boolean moving = false;
+        if (kinds[start] == ESTATE) {
+            estateFrontier = 1 << estateIds[start];
+            visitedEstates = estateFrontier;
+        } else {
+            frontier[start >>> 6] = 1L << start;
+            reached[start >>> 6] = frontier[start >>> 6];
+            moving = true;
         }
-        // Initialize the other cells:
-        // ******************************************************
-        // Haunted House:
-        // ******************************************************
-        estates[0] = new HauntedHouse(2, 2);
-        fill(2,2,7,7, new Wall());
-        fill(3,3,6,6, estates[0]);
-        cells[3][6] = new Entrance(3,6, estates[0]);
-        estates[0].addEntrance((Entrance) cells[3][6]);
-        cells[6][5] = new Entrance(6,5, estates[0]);
-        estates[0].addEntrance((Entrance) cells[6][5]);
-        // ******************************************************
-        // Manic Manor:
-        // ******************************************************
-        estates[1] = new ManicManor(2,17);
-        fill(2,17, 7,22, new Wall());
-        fill(3, 18, 6, 21, estates[1]);
-        // Entrances:
-        // column 17 (x), row 5 (y) [row][column] [y][x] Flip the order.
-        cells[5][17] = new Entrance(5, 17, estates[1]);
-        estates[1].addEntrance((Entrance) cells[5][17]);
-        cells[6][20] = new Entrance(6, 20,estates[1]);
-        estates[1].addEntrance((Entrance) cells[6][20]);
-        // ******************************************************
-        // Calamity Castle:
-        // ******************************************************
-        estates[2] = new CalamityCastle(17, 2);
-        fill(17,2,22,7, new Wall());
-        fill(18, 3, 21, 6,  estates[2]);
-        // Entrances:
-        // column 3 (x), row 17 (y) [row][column] [y][x] Flip the order.
-        cells[17][3] = new Entrance(17,13, estates[2]);
-        estates[2].addEntrance((Entrance) cells[17][3]);
-        // column 6 (x), row 18 (y) [row][column] [y][x] Flip the order.
-        cells[18][6] = new Entrance(18, 6, estates[2]);
-        estates[2].addEntrance((Entrance) cells[18][6]);
-
-        // ******************************************************
-        // Peril Palace:
-        // ******************************************************
-        estates[3] = new PerilPalace( 17,17);
-        fill(17,17,22,22, new Wall());
-        fill(18, 18, 21,21, estates[3]);
-        cells[17][18] = new Entrance(17,18, estates[3]);
-        estates[3].addEntrance((Entrance) cells[17][18]);
-        // column 17 (x), row 20 (y) [row][column] [y][x] Flip the order.
-        cells[20][17] = new Entrance(20,17, estates[3]);
-        estates[3].addEntrance((Entrance) cells[20][17]);
-
-        // ******************************************************
-        // Visitation Villa:
-        // ******************************************************
-        estates[4] = new VisitationVilla( 10,9);
-        fill(10,9,14,15, new Wall());
-        fill(11, 10, 13, 14, estates[4]);
-        // column 12 (x), row 10 (y) [row][column] [y][x] Flip the order.
-        cells[10][12] = new Entrance(10,12, estates[4]);
-        // column 14 (x), row 11 (y) [row][column] [y][x] Flip the order.
-        cells[11][14] = new Entrance(10,12,  estates[4]);
-        // column 9 (x), row 12 (Y) [row][column] [y][x] Flip the order.
-        cells[12][9] = new Entrance(10,12, estates[4]);
-        // column 11 (x), row 13 (y) [row][column] [y][x] Flip the order.
-        cells[13][11] = new Entrance(10,12, estates[4]);
-
-        // ******************************************************
-        // Top Square:
-        // ******************************************************
-        for (int row = 5; row <= 6; row++) {
-            for (int column = 11; column <= 12; column++) {
-                cells[row][column] = new Wall();
+
+        for (int step = 0; step < roll && (estateFrontier != 0 || moving); step++) {
+            moving = false;
+            int nextEstates = 0;
+            for (int w = 0; w < reached.length; w++) {
+                // Spread the frontier one cell down, up, right and left.
+                long spread = shifted(frontier, w, numCols) | shifted(frontier, w, -numCols)
+                        | shifted(frontier, w, 1) & notFirstCol[w]
+                        | shifted(frontier, w, -1) & notLastCol[w];
+                long n = spread & (pathBits[w] & ~occupiedBits[w] | entranceBits[w]) & ~reached[w];
+                for (long entrances = n & entranceBits[w]; entrances != 0; entrances &= entrances - 1) {
+                    nextEstates |= 1 << estateIds[(w << 6) + Long.numberOfTrailingZeros(entrances)];
+                }
+                reached[w] |= n;
+                next[w] = n & ~entranceBits[w];
+                moving |= next[w] != 0;
             }
-        }
-        // ******************************************************
-        // Right Square:
-        // ******************************************************
-        for (int row = 11; row <= 12; row++) {
-            for (int column = 17; column <= 18; column++) {
-                cells[row][column] = new Wall();
+            // Step out of any estate entered on the previous move.
+            for (int e = estateFrontier; e != 0; e &= e - 1) {
+                for (int exit : layout.exits(Integer.numberOfTrailingZeros(e))) {
+                    long bit = 1L << exit;
+                    if ((pathBits[exit >>> 6] & ~occupiedBits[exit >>> 6] & ~reached[exit >>> 6] & bit) != 0) {
+                        reached[exit >>> 6] |= bit;
+                        next[exit >>> 6] |= bit;
+                        moving = true;
+                    }
+                }
             }
+            nextEstates &= ~visitedEstates;
+            visitedEstates |= nextEstates;
+            estateFrontier = nextEstates;
+            long[] swap = frontier;
+            frontier = next;
+            next = swap;
         }
-        // ******************************************************
-        // Bottom Square:
-        // ******************************************************
-        for (int row = 17; row <= 18; row++) {
-            for (int column = 11; column <= 12; column++) {
-                cells[row][column] = new Wall();
-            }
+
+        // Entrances are only ever stepped through, and the player doesn't "reach" where they started.
+        for (int w = 0; w < reached.length; w++) {
+            reached[w] &= ~entranceBits[w];
+        }
+        if (kinds[start] == ESTATE) {
+            visitedEstates &= ~(1 << estateIds[start]);
+        } else {
+            reached[start >>> 6] &= ~(1L << start);
         }
-        // ******************************************************
-        // Left Square:
-        // ******************************************************
-        for (int row = 11; row <= 12; row++) {
-            for (int column = 5; column <= 6; column++) {
-                cells[row][column] = new Wall();
+        out.setEstates(visitedEstates);
+    }
+
+    /**
+     * Returns word w of a bitset over packed indices after shifting it by the
+     * given number of cells: towards higher indices if by is positive, lower if negative.
+     */
+    private static long shifted(long[] bits, int w, int by) {
+        if (by >= 0) {
+            int from = w - (by >>> 6);
+            int shift = by & 63;
+            long v = from >= 0 ? bits[from] << shift : 0;
+            if (shift != 0 && from > 0) {
+                v |= bits[from - 1] >>> (64 - shift);
             }
+            return v;
+        } else {
+            int from = w + (-by >>> 6);
+            int shift = -by & 63;
+            long v = from < bits.length ? bits[from] >>> shift : 0;
+            if (shift != 0 && from + 1 < bits.length) {
+                v |= bits[from + 1] << (64 - shift);
+            }
+            return v;
         }
     }
 
     /**
-     * Prints a string representation of the game board to the console.
+     * Prints a string representation of the game board to the given sink.
      * The representation includes the type of each cell and additional information for specific cells.
+     *
+     * @param out the sink to print to, skipped entirely if it is disabled.
      */
-    public void print() {
-        System.out.println("Printing Board...");
+    public void print(EventSink out) {
+        if (!out.enabled()) {
+            return;
+        }
         StringBuilder boardPrint = new StringBuilder();
-        for (int row = 0; row < 24; row++) {
-
-            for (int col = 0; col < 24; col++) {
-                if (cells[row][col] == null) {
-                    //boardPrint.append("   "); // 3 characters.
-                    boardPrint.append("nul"); // 3 characters.
-                    continue;
-                }
-                // Haunted House:
-                else if (row >= 2 && row < 7 && col == 2) {
-                    // 15 total - 7 word = 8 remaining. So 4 left and 4 right
-                    boardPrint.append(estates[0].line(row));
-                    col = 7;
-                }
-                // Manic Manor:
-                else if (row >= 2 && row < 7 && col == 17) {
-                    boardPrint.append(estates[1].line(row));
-                    col = 22;
-                }
-                // Calamity Castle:
-                else if (row >= 17 && row < 22 && col == 2) {
-                    // 15 total - 7 word = 8 remaining. So 4 left and 4 right
-                    boardPrint.append(estates[2].line(row));
-                    col = 7;
-                }
-
-                // Peril Palace:
-                else if (row >= 17 && row < 22 && col == 17) {
-                    boardPrint.append(estates[3].line(row));
-                    col = 22;
-                }
+        appendTo(boardPrint);
+        out.print(boardPrint.toString());
+    }
 
-                // Visitation Villa:
-                else if (row >= 10 && row < 14 && col == 9) {
-                    boardPrint.append(estates[4].line(row));
-                    col = 15;
+    /**
+     * Appends the string representation printed by print() to the given builder.
+     *
+     * @param boardPrint the builder to append the board to.
+     */
+    void appendTo(StringBuilder boardPrint) {
+        boardPrint.append("Printing Board...\n");
+        for (int row = 0; row < numRows; row++) {
+            for (int col = 0; col < numCols; col++) {
+                int e = layout.boxId(index(row, col));
+                if (e < 0) {
+                    boardPrint.append(cellString(row, col));
+                } else if (col == layout.box(e)[1]) {
+                    // The estate draws its whole row at once, walls and entrances included.
+                    boardPrint.append(estates[e].line(row, occupants(e)));
                 }
-                boardPrint.append(cells[row][col]);
-
             }
             boardPrint.append("\n");
         }
-        System.out.print(boardPrint);
-
-        /*DEBUG ONLY:
-        //"Lu Be Ma Pe "
-
-        System.out.print("DEBUG ONLY: estates[0].playerStrings(): = ");
-        for(int i = 0; i < estates.length; i++){
-            System.out.print(i + " = " + estates[i].playerStrings() + " | ");
-        }
-        System.out.println();
-        */
     }
 }
\ No newline at end of file
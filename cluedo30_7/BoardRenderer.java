@@ -0,0 +1,245 @@
+package cluedo30_7;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The BoardRenderer class draws a Board to a terminal frame by frame. The first
+ * frame (and any frame after redraw()) clears the screen and draws the whole
+ * board; after that only the path cells and estates whose occupants changed
+ * since the last frame are drawn again, using ANSI escape codes to put the
+ * cursor on them. A typical move touches two cells, so a frame is a few dozen
+ * characters rather than the whole 1800 character standard board.
+ * <p>
+ * Those codes put the cursor on absolute screen lines, which only works while
+ * the board hasn't scrolled. Everything else the game prints goes through
+ * out(), which counts its lines and the answers typed after its prompts, and
+ * once they could have filled the screen under the board the next frame draws
+ * the whole board again. Games only use a renderer when screenLines() finds a
+ * terminal that can show one; otherwise they print the board whole.
+ */
+public class BoardRenderer {
+    private static final String ESC = "\u001b[";
+    private static final int TOP = 2; // Terminal line of the board's first row, under the heading.
+
+    private final Board board;
+    private final EventSink target;
+    private final EventSink out;
+    private final int room;       // Lines under the board that can be written before it scrolls.
+    private int written;          // Lines written under the board since the last frame.
+    private boolean stale = true;
+
+    /**
+     * Constructs a BoardRenderer for a screen too tall to ever scroll.
+     *
+     * @param board the board to draw.
+     * @param out   the sink to draw it to, which should be an ANSI terminal.
+     */
+    public BoardRenderer(Board board, EventSink out) {
+        this(board, out, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructs a BoardRenderer for the given board.
+     *
+     * @param board       the board to draw.
+     * @param out         the sink to draw it to, which should be an ANSI terminal.
+     * @param screenLines how many lines the terminal shows, from screenLines().
+     */
+    public BoardRenderer(Board board, EventSink out, int screenLines) {
+        this.board = board;
+        this.target = out;
+        this.room = screenLines - (board.rows() + TOP);
+        this.out = new Lines();
+    }
+
+    /**
+     * Getter method for the sink everything else shown under the board should
+     * be printed through, so the renderer knows when it may have scrolled.
+     */
+    public EventSink out() {
+        return out;
+    }
+
+    /**
+     * Makes the next frame draw the whole board again, e.g. after the screen
+     * has been cleared or scrolled by something else.
+     */
+    public void redraw() {
+        stale = true;
+    }
+
+    /**
+     * Draws everything that has changed since the last frame, or the whole
+     * board if there is no previous frame to build on. Leaves the cursor on a
+     * cleared line just under the board.
+     */
+    public void render() {
+        if (!target.enabled()) {
+            return;
+        }
+        StringBuilder frame = new StringBuilder();
+        if (stale || written >= room) {
+            frame.append(ESC).append("H").append(ESC).append("2J");
+            board.clearDirty();
+            board.appendTo(frame);
+            stale = false;
+        } else {
+            long[] dirty = board.dirtyCells();
+            for (int w = 0; w < dirty.length; w++) {
+                for (long bits = dirty[w]; bits != 0; bits &= bits - 1) {
+                    int i = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    int row = i / board.cols(), col = i % board.cols();
+                    moveTo(frame, row, col).append(board.cellString(row, col));
+                }
+            }
+            for (int e = board.dirtyEstates(); e != 0; e &= e - 1) {
+                int estate = Integer.numberOfTrailingZeros(e);
+                int[] box = board.layout().box(estate);
+                for (int row = box[0]; row <= box[2]; row++) {
+                    moveTo(frame, row, box[1]).append(board.estates()[estate].line(row, board.occupants(estate)));
+                }
+            }
+            board.clearDirty();
+        }
+        moveTo(frame, board.rows(), 0).append(ESC).append("J");
+        target.print(frame.toString());
+        written = 0;
+    }
+
+    /**
+     * Appends the escape code putting the cursor on the given cell of the board.
+     */
+    private static StringBuilder moveTo(StringBuilder frame, int row, int col) {
+        return frame.append(ESC).append(row + TOP).append(';').append(col * 3 + 1).append('H');
+    }
+
+    /**
+     * Finds out whether games on this layout can be drawn with a renderer:
+     * the game must be on a console, in a terminal that understands ANSI
+     * escape codes (TERM is set and isn't "dumb"), of a known size with room
+     * for the whole board and a line under it.
+     *
+     * @param layout the board to be drawn.
+     * @return how many lines the terminal shows, or 0 if a renderer can't be used.
+     */
+    public static int screenLines(Layout layout) {
+        String term = System.getenv("TERM");
+        if (System.console() == null || term == null || term.equals("dumb")) {
+            return 0;
+        }
+        int[] size = terminalSize();
+        if (size == null || size[0] <= layout.rows() + TOP || size[1] < layout.cols() * 3) {
+            return 0;
+        }
+        return size[0];
+    }
+
+    /**
+     * Asks the terminal how big it is, from LINES and COLUMNS if the shell
+     * exported them, otherwise from stty.
+     *
+     * @return its lines and columns, or null if they can't be found out.
+     */
+    private static int[] terminalSize() {
+        String lines = System.getenv("LINES"), columns = System.getenv("COLUMNS");
+        try {
+            if (lines != null && columns != null) {
+                return new int[] {Integer.parseInt(lines.trim()), Integer.parseInt(columns.trim())};
+            }
+            Process stty = new ProcessBuilder("stty", "size")
+                    .redirectInput(ProcessBuilder.Redirect.from(new File("/dev/tty")))
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            String[] size = new String(stty.getInputStream().readAllBytes(), StandardCharsets.US_ASCII)
+                    .trim().split("\\s+");
+            if (stty.waitFor() == 0 && size.length == 2) {
+                return new int[] {Integer.parseInt(size[0]), Integer.parseInt(size[1])};
+            }
+        } catch (IOException | NumberFormatException e) {
+            // No terminal to ask; fall through.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    /**
+     * Passes everything on to the renderer's sink, counting the lines it
+     * takes up under the board: one per new line, one for the answer typed
+     * after each prompt, and the whole screen for clear().
+     */
+    private final class Lines implements EventSink {
+        @Override
+        public void print(String text) {
+            print(Level.INFO, text);
+        }
+
+        @Override
+        public void println(String text) {
+            println(Level.INFO, text);
+        }
+
+        @Override
+        public void printf(String format, Object... args) {
+            printf(Level.INFO, format, args);
+        }
+
+        @Override
+        public void print(Level level, String text) {
+            if (target.enabled(level)) {
+                count(level, text);
+                target.print(level, text);
+            }
+        }
+
+        @Override
+        public void println(Level level, String text) {
+            if (target.enabled(level)) {
+                count(level, text);
+                written++;
+                target.println(level, text);
+            }
+        }
+
+        @Override
+        public void printf(Level level, String format, Object... args) {
+            if (target.enabled(level)) {
+                count(level, format);
+                written += format.split("%n", -1).length - 1;
+                target.printf(level, format, args);
+            }
+        }
+
+        @Override
+        public boolean enabled() {
+            return target.enabled();
+        }
+
+        @Override
+        public boolean enabled(Level level) {
+            return target.enabled(level);
+        }
+
+        @Override
+        public void clear() {
+            stale = true;
+            target.clear();
+        }
+
+        @Override
+        public void flush() {
+            target.flush();
+        }
+
+        private void count(Level level, String text) {
+            for (int i = text.indexOf('\n'); i >= 0; i = text.indexOf('\n', i + 1)) {
+                written++;
+            }
+            if (level == Level.PROMPT) {
+                written++;
+            }
+        }
+    }
+}
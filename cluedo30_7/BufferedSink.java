@@ -0,0 +1,112 @@
+package cluedo30_7;
+
+import java.io.PrintStream;
+import java.util.Formatter;
+
+/**
+ * The BufferedSink class collects a game's output in memory and writes it to a
+ * stream all at once whenever a PROMPT is printed, i.e. just before the game
+ * waits for an answer, instead of once per line. Messages below its level are
+ * dropped before they are formatted.
+ */
+public class BufferedSink implements EventSink {
+    private static final int FLUSH_AT = 1 << 16; // Write out anyway once this much is waiting.
+    private static final String CLEAR = "\n".repeat(100);
+
+    private final PrintStream target;
+    private final Level level;
+    private final StringBuilder buffer = new StringBuilder(4096);
+    private final Formatter formatter = new Formatter(buffer);
+
+    /**
+     * Constructs a BufferedSink keeping INFO and PROMPT messages.
+     *
+     * @param target the stream to write to, usually System.out.
+     */
+    public BufferedSink(PrintStream target) {
+        this(target, Level.INFO);
+    }
+
+    /**
+     * Constructs a BufferedSink keeping messages at or above the given level.
+     *
+     * @param target the stream to write to, usually System.out.
+     * @param level  the least important level kept.
+     */
+    public BufferedSink(PrintStream target, Level level) {
+        this.target = target;
+        this.level = level;
+    }
+
+    @Override
+    public void print(String text) {
+        print(Level.INFO, text);
+    }
+
+    @Override
+    public void println(String text) {
+        println(Level.INFO, text);
+    }
+
+    @Override
+    public void printf(String format, Object... args) {
+        printf(Level.INFO, format, args);
+    }
+
+    @Override
+    public void print(Level level, String text) {
+        if (enabled(level)) {
+            buffer.append(text);
+            written(level);
+        }
+    }
+
+    @Override
+    public void println(Level level, String text) {
+        if (enabled(level)) {
+            buffer.append(text).append('\n');
+            written(level);
+        }
+    }
+
+    @Override
+    public void printf(Level level, String format, Object... args) {
+        if (enabled(level)) {
+            formatter.format(format, args);
+            written(level);
+        }
+    }
+
+    @Override
+    public boolean enabled() {
+        return enabled(Level.INFO);
+    }
+
+    @Override
+    public boolean enabled(Level level) {
+        return level.compareTo(this.level) >= 0;
+    }
+
+    @Override
+    public void clear() {
+        print(Level.INFO, CLEAR);
+    }
+
+    @Override
+    public void flush() {
+        if (buffer.length() > 0) {
+            target.append(buffer);
+            buffer.setLength(0);
+        }
+        target.flush();
+    }
+
+    /**
+     * Flushes after a prompt, or once the buffer has grown large.
+     */
+    private void written(Level level) {
+        if (level == Level.PROMPT || buffer.length() >= FLUSH_AT) {
+            flush();
+        }
+    }
+}
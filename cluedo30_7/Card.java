@@ -0,0 +1,150 @@
+package cluedo30_7;
+
+/**
+ * The Card enum lists all 14 cards in Hobby Detectives. Since there are so few,
+ * a set of cards (a hand, the cards a player has seen, a guess or the solution)
+ * is stored as an int with one bit per card, bit i being the card with ordinal i.
+ * That turns checks like "can this hand refute this guess" into a single AND.
+ */
+public enum Card {
+    LUCILLA("Lucilla", Type.SUSPECT),
+    BERT("Bert", Type.SUSPECT),
+    MALINA("Malina", Type.SUSPECT),
+    PERCY("Percy", Type.SUSPECT),
+    BROOM("Broom", Type.WEAPON),
+    SCISSORS("Scissors", Type.WEAPON),
+    KNIFE("Knife", Type.WEAPON),
+    SHOVEL("Shovel", Type.WEAPON),
+    IPAD("Ipad", Type.WEAPON),
+    HAUNTED_HOUSE("Haunted_House", Type.ESTATE),
+    MANIC_MANOR("Manic_Manor", Type.ESTATE),
+    CALAMITY_CASTLE("Calamity_Castle", Type.ESTATE),
+    PERIL_PALACE("Peril_Palace", Type.ESTATE),
+    VISITATION_VILLA("Visitation_Villa", Type.ESTATE);
+
+    /**
+     * The three kinds of card, each with the mask of every card of that kind.
+     */
+    public enum Type {
+        SUSPECT(0x000F),  // Cards 0-3
+        WEAPON (0x01F0),  // Cards 4-8
+        ESTATE (0x3E00);  // Cards 9-13
+
+        private final int mask;
+
+        Type(int mask) {
+            this.mask = mask;
+        }
+
+        /**
+         * Getter method for the mask of every card of this type.
+         */
+        public int mask() { return mask; }
+    }
+
+    private static final Card[] CARDS = values();
+
+    /**
+     * The mask of every card in the game.
+     */
+    public static final int ALL = (1 << CARDS.length) - 1;
+
+    private final String displayName;
+    private final Type type;
+
+    Card(String displayName, Type type) {
+        this.displayName = displayName;
+        this.type = type;
+    }
+
+    /**
+     * Getter method for the card's type.
+     */
+    public Type type() { return type; }
+
+    /**
+     * Getter method for this card's bit.
+     *
+     * @return mask - a mask containing only this card.
+     */
+    public int mask() { return 1 << ordinal(); }
+
+    /**
+     * Checks whether this card is in the given mask.
+     *
+     * @param mask the set of cards to check.
+     * @return true if the card's bit is set.
+     */
+    public boolean in(int mask) { return (mask & mask()) != 0; }
+
+    /**
+     * Getter method for the card with the given ordinal.
+     */
+    public static Card of(int ordinal) { return CARDS[ordinal]; }
+
+    /**
+     * Returns the lowest card in the given mask.
+     *
+     * @param mask a non-empty set of cards.
+     * @return the card with the lowest ordinal in the mask.
+     */
+    public static Card first(int mask) {
+        return CARDS[Integer.numberOfTrailingZeros(mask)];
+    }
+
+    /**
+     * Returns the n-th lowest card in the given mask, used to pick a card at random.
+     *
+     * @param mask a set of cards with more than n cards in it.
+     * @param n    how many cards to skip.
+     * @return the chosen card.
+     */
+    public static Card nth(int mask, int n) {
+        for (int i = 0; i < n; i++) {
+            mask &= mask - 1; // Clear the lowest set bit.
+        }
+        return first(mask);
+    }
+
+    /**
+     * Finds the card with the given display name.
+     *
+     * @param name the name to look for, as printed on the card.
+     * @return the matching card, or null if no card has that name.
+     */
+    public static Card parse(String name) {
+        for (Card c : CARDS) {
+            if (c.displayName.equals(name)) {
+                return c;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lists the names of every card in a mask, for display.
+     *
+     * @param mask the set of cards.
+     * @return the names in the form [Bert, Knife].
+     */
+    public static String names(int mask) {
+        StringBuilder names = new StringBuilder("[");
+        for (int m = mask; m != 0; m &= m - 1) {
+            if (names.length() > 1) {
+                names.append(", ");
+            }
+            names.append(first(m));
+        }
+        return names.append("]").toString();
+    }
+
+    /**
+     * String representation of a card.
+     *
+     * @return the name printed on the card.
+     */
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
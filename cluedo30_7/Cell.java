@@ -2,8 +2,12 @@ package cluedo30_7;
 
 /**
  * The cell interface lists the common methods of all cell implementations.
+ * Cells only describe the layout of the board; who is standing where is
+ * tracked by each game's Board. There are exactly four kinds of cell, so the
+ * interface is sealed and each kind is tagged with the byte Board packs its
+ * layout with, letting code switch on kind() rather than test instanceof.
  */
-public interface Cell {
+public sealed interface Cell permits Path, Wall, Entrance, Estate {
 	/**
 	 * Creates a copy of the Cell.
 	 *
@@ -26,34 +30,21 @@ public interface Cell {
 	int column();
 
 	/**
-	 * Checks if the Cell is passable, i.e., if a player can move to this Cell.
+	 * Gets the kind of the Cell.
 	 *
-	 * @return true if the Cell is passable (empty), false otherwise.
+	 * @return Board.PATH, WALL, ENTRANCE or ESTATE.
 	 */
-	Boolean isPassable();
+	byte kind();
 
 	/**
-	 * Checks if a player is in the Cell.
+	 * Checks if the Cell is passable, i.e., if a player could ever stand in this Cell.
+	 * Whether it is free right now is up to Board.isFree().
 	 *
-	 * @param player The Player to check for.
-	 * @return has   whether the player is present.
+	 * @return true if the Cell is passable, false otherwise.
 	 */
-	boolean hasPlayer(Player player);
-
-	/**
-	 * Sets a player in the Cell.
-	 *
-	 * @param player The Player to set in the Cell.
-	 */
-	void setPlayer(Player player);
-
-	/**
-	 * Removes a player from the Path cell.
-	 *
-	 * @param p the player to remove.
-	 * @throws IllegalArgumentException if the specified Player is not in this cell.
-	 */
-	void removePlayer(Player p);
+	default boolean isPassable() {
+		return kind() != Board.WALL;
+	}
 }
 
 /**
@@ -62,7 +53,6 @@ public interface Cell {
 final class Path implements Cell {
 	private final int row;
 	private final int column;
-	private Player player;
 
 	/**
 	 * Creates a new Path cell with the specified row and column indices.
@@ -104,61 +94,21 @@ final class Path implements Cell {
 	public int column() {return column;}
 
 	/**
-	 * Returns if the player can step into the cell.
+	 * Getter method for the kind of cell.
 	 *
-	 * @return if there is room for a player
+	 * @return Board.PATH
 	 */
-	public Boolean isPassable() {
-
-		return player == null;
-	}
-
-	/**
-	 * Returns if the specified player is in the Cell
-	 *
-	 * @param p The Player to check for presence in the Cell.
-	 * @return true if the player is present, false otherwise
-	 */
-	public boolean hasPlayer(Player p){return player.equals(p);}
-
-	/**
-	 * Adds a player if there is room
-	 *
-	 * @param p The Player to set in the Cell.
-	 * @throws IllegalStateException if the Path cell is already occupied by another player.
-	 */
-	public void setPlayer(Player p){
-		if (player == null) {
-			player = p;
-		} else {
-			throw new IllegalStateException("Adding a player to a filled Cell");
-		}
-	}
-
-	/**
-	 * Removes a player from the Path cell.
-	 *
-	 * @param p the player to remove.
-	 * @throws IllegalArgumentException if the specified Player is not in this cell.
-	 */
-	public void removePlayer(Player p){
-		if (player != p) {
-			throw new IllegalArgumentException(p.name() + " is not in this cell");
-		} else {
-			player = null;
-		}
+	@Override
+	public byte kind() {
+		return Board.PATH;
 	}
 
-
 	/**
-	 * String representation of a path
+	 * String representation of an empty path
 	 *
-	 * @return The players name if one is present __| if empty.
+	 * @return __|
 	 */
 	public String toString(){
-		if(player != null){
-			return player + "|";
-		}
 		return "__|";
 	}
 }
@@ -170,7 +120,6 @@ final class Entrance implements Cell {
 	private final int row;
 	private final int column;
 	private final Estate estate;
-	private Player player;
 
 	public Entrance(int row, int column, Estate estate) {
 		this.row    = row;
@@ -213,51 +162,13 @@ final class Entrance implements Cell {
 	}
 
 	/**
-	 * Returns if the player can step into the Cell.
-	 *
-	 * @return if there is room for a player
-	 */
-	public Boolean isPassable() {return player == null; }
-
-	/**
-	 * Returns if the specified player is in the Cell
-	 *
-	 * @param p The Player to check for presence in the Cell.
-	 * @return true if the player is present, false otherwise
-	 */
-	public boolean hasPlayer(Player p){return player.equals(p);}
-
-	/**
-	 * Method to add player to the entrance's estate.
-	 *
-	 * @param p The Player to set in the Estate.
-	 * @throws IllegalArgumentException if the user tries to use a blocked entrance.
-	 */
-	@Override
-	public void setPlayer(Player p) {
-		if (this.player == null) {
-			estate.setPlayer(p);
-		} else {
-			throw new IllegalArgumentException("Overloading Entrance of" + estate.toString());
-		}
-	}
-
-	/**
-	 * Removes the given player if present.
+	 * Getter method for the kind of cell. Stepping onto an entrance takes the
+	 * player into its estate.
 	 *
-	 * @param p The Player to remove from the Entrance or Estate.
-	 * @throws IllegalArgumentException if the player is not located in the entrance or estate.
+	 * @return Board.ENTRANCE
 	 */
 	@Override
-	public void removePlayer(Player p) {
-		if (p == player) {
-			player = null;
-		} else if (estate.hasPlayer(p)) {
-			estate.removePlayer(p);
-		} else {
-			throw new IllegalArgumentException(player.name() + "is not in this estate");
-		}
-	}
+	public byte kind() { return Board.ENTRANCE; }
 
 	/**
 	 * String representation of an entrance.
@@ -273,8 +184,22 @@ final class Entrance implements Cell {
  * Walls represent impassible cells on the board.
  */
 final class Wall implements Cell {
+	private final int row;
+	private final int column;
+
 	/**
-	 * Since none of walls values change, all walls can be pointers to the same instance.
+	 * Creates a new Wall cell at the specified row and column indices.
+	 *
+	 * @param row    The row index of the Wall cell.
+	 * @param column The column index of the Wall cell.
+	 */
+	public Wall(int row, int column) {
+		this.row = row;
+		this.column = column;
+	}
+
+	/**
+	 * Since none of walls values change, a wall is its own copy.
 	 * @return pointer to this wall instance.
 	 */
 	@Override
@@ -283,46 +208,33 @@ final class Wall implements Cell {
 	}
 
 	/**
-	 * Autogenerated method to satisfy Cell's requirements
-	 * @throws IllegalArgumentException if called.
+	 * Getter method for Row
+	 *
+	 * @return the Cell's Y coordinate.
 	 */
 	@Override
 	public int row() {
-		throw new IllegalArgumentException("Shouldn't be checking a Wall's location");
+		return row;
 	}
 
 	/**
-	 * Autogenerated method to satisfy Cell's requirements
-	 * @throws IllegalArgumentException if called.
+	 * Getter method for Column
+	 *
+	 * @return the Cell's X coordinate.
 	 */
 	@Override
 	public int column() {
-		throw new IllegalArgumentException("Shouldn't be checking a Wall's location");
+		return column;
 	}
 
 	/**
-	 * Checks if there is room for a player.
+	 * Getter method for the kind of cell.
 	 *
-	 * @param p The Player to check for presence in the Cell.
-	 * @return false - Walls can't contain players.
+	 * @return Board.WALL - Walls can't contain players.
 	 */
-
-	public boolean hasPlayer(Player p) {
-		return false;
-	}
-
-	public Boolean isPassable() {
-		return false;
-	}
-
-	@Override
-	public void setPlayer(Player player) {
-		throw new IllegalCallerException("Walls can't store players");
-	}
-
 	@Override
-	public void removePlayer(Player player) {
-		throw new IllegalCallerException("Walls can't store players");
+	public byte kind() {
+		return Board.WALL;
 	}
 
 	public String toString(){return "###";}
@@ -0,0 +1,243 @@
+package cluedo30_7;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The CommandReader class splits a stream of player commands into words, for
+ * playing scripted games much faster than a Scanner can. Every answer the game
+ * asks for is one word (a direction or path, g or s, a card's name, a number),
+ * and any run of spaces, tabs or new lines separates words, so a script can lay
+ * its answers out one per line or many per line. Words are read into a reused
+ * buffer and matched there, so reading a direction, number or card allocates
+ * nothing. Commands are ASCII; other bytes are kept as they are and simply
+ * won't match anything.
+ * <p>
+ * A non-blocking channel can have nothing to read yet. The reader then waits
+ * for it on a Selector if it is a SelectableChannel, or otherwise sleeps for
+ * a little longer after each empty read, rather than spinning on it.
+ */
+public final class CommandReader implements Closeable {
+    private static final byte[][] CARD_NAMES = new byte[Card.values().length][];
+    private static final long MAX_BACKOFF_NANOS = 10_000_000; // Longest sleep between empty reads.
+    static {
+        for (Card c : Card.values()) {
+            CARD_NAMES[c.ordinal()] = c.toString().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+    private final byte[] bytes = buffer.array();
+    private int position;
+    private int limit;
+    private byte[] word = new byte[32];
+    private int length;
+    private boolean ended;
+    private Selector selector; // Made the first time a SelectableChannel has nothing to read.
+
+    /**
+     * Constructs a CommandReader reading from the given stream.
+     *
+     * @param in the stream of commands, such as System.in or a script file.
+     */
+    public CommandReader(InputStream in) {
+        this(Channels.newChannel(in));
+    }
+
+    /**
+     * Constructs a CommandReader reading from the given channel.
+     *
+     * @param channel the channel of commands.
+     */
+    public CommandReader(ReadableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Reads the next word into the buffer.
+     *
+     * @return false if the input ended first, leaving an empty word.
+     * @throws UncheckedIOException if the input can't be read.
+     */
+    public boolean advance() {
+        length = 0;
+        int b;
+        do {
+            b = read();
+        } while (b == ' ' || b == '\t' || b == '\n' || b == '\r');
+        while (b >= 0 && b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+            if (length == word.length) {
+                word = Arrays.copyOf(word, length * 2);
+            }
+            word[length++] = (byte) b;
+            b = read();
+        }
+        return length > 0;
+    }
+
+    /**
+     * Returns whether the input has ended, so every further word will be empty.
+     */
+    public boolean ended() {
+        return ended;
+    }
+
+    /**
+     * Getter method for the length of the word last read by advance().
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Getter method for a character of the word last read by advance().
+     *
+     * @param i the character's index, less than length().
+     * @return the character.
+     */
+    public char charAt(int i) {
+        return (char) (word[i] & 0xFF);
+    }
+
+    /**
+     * Getter method for the word last read by advance(), as a new string.
+     */
+    public String word() {
+        return new String(word, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Reads the next word and returns its first character.
+     *
+     * @return the character, or ' ' if the input has ended.
+     */
+    public char nextChar() {
+        return advance() ? (char) (word[0] & 0xFF) : ' ';
+    }
+
+    /**
+     * Reads the next word as a non-negative number.
+     *
+     * @return the number, or -1 if the word isn't one (or is too large).
+     */
+    public int nextInt() {
+        if (!advance() || length > 9) {
+            return -1;
+        }
+        int n = 0;
+        for (int i = 0; i < length; i++) {
+            if (word[i] < '0' || word[i] > '9') {
+                return -1;
+            }
+            n = n * 10 + word[i] - '0';
+        }
+        return n;
+    }
+
+    /**
+     * Reads the next word as the name of a card, exactly as printed on it.
+     *
+     * @return the card, or null if the word isn't a card's name.
+     */
+    public Card nextCard() {
+        if (!advance()) {
+            return null;
+        }
+        for (int c = 0; c < CARD_NAMES.length; c++) {
+            if (Arrays.equals(word, 0, length, CARD_NAMES[c], 0, CARD_NAMES[c].length)) {
+                return Card.of(c);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the next word as a string.
+     *
+     * @return the word, or an empty string if the input has ended.
+     */
+    public String next() {
+        advance();
+        return word();
+    }
+
+    /**
+     * Closes the underlying channel.
+     */
+    @Override
+    public void close() {
+        try {
+            if (selector != null) {
+                selector.close();
+            }
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the next byte of input, refilling the buffer as needed, or -1 at the end.
+     */
+    private int read() {
+        if (position == limit) {
+            if (ended) {
+                return -1;
+            }
+            try {
+                buffer.clear();
+                int n;
+                for (int empty = 0; (n = channel.read(buffer)) == 0; empty++) {
+                    await(empty);
+                }
+                if (n < 0) {
+                    ended = true;
+                    position = limit = 0;
+                    return -1;
+                }
+                position = 0;
+                limit = n;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return bytes[position++] & 0xFF;
+    }
+
+    /**
+     * Waits for the channel to have something to read after a read that got
+     * nothing.
+     *
+     * @param empty how many empty reads there have been in a row before this one.
+     * @throws InterruptedIOException if the thread is interrupted while waiting.
+     */
+    private void await(int empty) throws IOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Interrupted waiting for commands");
+        }
+        if (channel instanceof SelectableChannel selectable && !selectable.isBlocking()) {
+            if (selector == null) {
+                selector = Selector.open();
+                selectable.register(selector, SelectionKey.OP_READ);
+            }
+            selector.select();
+            selector.selectedKeys().clear();
+        } else {
+            // 1 us, doubling up to MAX_BACKOFF_NANOS.
+            LockSupport.parkNanos(Math.min(1_000L << Math.min(empty, 20), MAX_BACKOFF_NANOS));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package cluedo30_7;
+
+import java.util.Scanner;
+
+/**
+ * Reads every decision from a Scanner, which is how the game has always
+ * been played: passing a tablet around and typing at the console. Once the
+ * input ends every answer is empty, which the game treats as invalid, and
+ * finished() tells the game to stop.
+ */
+public class ConsoleDecisions implements DecisionProvider {
+    private final Scanner scanner;
+    private boolean finished;
+
+    /**
+     * Constructs a ConsoleDecisions reading from the given scanner.
+     *
+     * @param scanner the scanner used for reading player input.
+     */
+    public ConsoleDecisions(Scanner scanner) {
+        this.scanner = scanner;
+    }
+
+    @Override
+    public int numberOfPlayers() {
+        try {
+            return Integer.parseInt(nextLine());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public void handOver(Player player) {
+        next();
+    }
+
+    @Override
+    public char direction(Player player, int movesLeft, int attempt) {
+        String token = next();
+        return token.isEmpty() ? ' ' : Character.toLowerCase(token.charAt(0));
+    }
+
+    @Override
+    public String path(Player player, int movesLeft, int attempt) {
+        return next().toLowerCase();
+    }
+
+    @Override
+    public char guessOrSolve(Player player, int movesLeft) {
+        String token = next();
+        return token.isEmpty() ? ' ' : token.charAt(0);
+    }
+
+    @Override
+    public Card suspect(Player player) {
+        return Card.parse(next());
+    }
+
+    @Override
+    public Card weapon(Player player) {
+        return Card.parse(next());
+    }
+
+    @Override
+    public Card estate(Player player) {
+        return Card.parse(next());
+    }
+
+    @Override
+    public Card alibi(Player player, int matching) {
+        return Card.parse(nextLine().trim());
+    }
+
+    @Override
+    public boolean finished() {
+        return finished;
+    }
+
+    /**
+     * Closes the scanner at the end of the game.
+     */
+    @Override
+    public void close() {
+        scanner.close();
+    }
+
+    /**
+     * Reads the next word, or an empty string once the input has ended.
+     */
+    private String next() {
+        if (finished || !scanner.hasNext()) {
+            finished = true;
+            return "";
+        }
+        return scanner.next();
+    }
+
+    /**
+     * Reads the rest of the current line, or an empty string once the input has ended.
+     */
+    private String nextLine() {
+        if (finished || !scanner.hasNextLine()) {
+            finished = true;
+            return "";
+        }
+        return scanner.nextLine();
+    }
+}
@@ -0,0 +1,115 @@
+package cluedo30_7;
+
+/**
+ * The DecisionProvider interface lists every choice the Game asks of its
+ * players. A console implementation reads them from the keyboard, while bots
+ * can answer them directly so a game can run headless.
+ */
+public interface DecisionProvider {
+
+    /**
+     * Asks how many players are taking part.
+     *
+     * @return the number of players, or -1 if the answer couldn't be read.
+     */
+    int numberOfPlayers();
+
+    /**
+     * Waits until the given player is ready to take the tablet.
+     *
+     * @param player the player being handed the game.
+     */
+    void handOver(Player player);
+
+    /**
+     * Asks the player which way to move.
+     *
+     * @param player    the player moving.
+     * @param movesLeft how many moves the player has left this turn.
+     * @param attempt   how many directions have already been rejected for this move.
+     * @return one of 'w', 'a', 's', 'd', or 'p' to stop moving for this turn.
+     */
+    char direction(Player player, int movesLeft, int attempt);
+
+    /**
+     * Asks the player for one or more moves at once, such as "wwddd", which are
+     * taken together or not at all. By default only a single direction is asked for.
+     *
+     * @param player    the player moving.
+     * @param movesLeft how many moves the player has left this turn.
+     * @param attempt   how many paths have already been rejected for this move.
+     * @return the directions, each one of 'w', 'a', 's', 'd', or just "p" to stop moving for this turn.
+     */
+    default String path(Player player, int movesLeft, int attempt) {
+        return String.valueOf(direction(player, movesLeft, attempt));
+    }
+
+    /**
+     * Asks a player standing in an estate what they'd like to do.
+     *
+     * @param player    the player in the estate.
+     * @param movesLeft how many moves the player has left this turn.
+     * @return 'g' to guess, 's' to attempt a solution, anything else to pass.
+     */
+    char guessOrSolve(Player player, int movesLeft);
+
+    /**
+     * Asks for a suspect card.
+     *
+     * @param player the player choosing.
+     * @return the chosen card, or null if the answer wasn't a card.
+     */
+    Card suspect(Player player);
+
+    /**
+     * Asks for a weapon card.
+     *
+     * @param player the player choosing.
+     * @return the chosen card, or null if the answer wasn't a card.
+     */
+    Card weapon(Player player);
+
+    /**
+     * Asks for an estate card.
+     *
+     * @param player the player choosing.
+     * @return the chosen card, or null if the answer wasn't a card.
+     */
+    Card estate(Player player);
+
+    /**
+     * Asks a player to choose which of their matching cards to show.
+     *
+     * @param player   the player refuting.
+     * @param matching the mask of the player's cards that are in the guess.
+     * @return the card to share, or null if the answer wasn't a card.
+     */
+    Card alibi(Player player, int matching);
+
+    /**
+     * Tells the provider how a guess was refuted, so bots can deduce where
+     * the cards are (see Deduction). Everyone sees who could refute, but only
+     * the guesser sees the card shown. Nothing is done with it by default.
+     *
+     * @param guesser  the player who guessed.
+     * @param guess    the mask of the guessed cards.
+     * @param refuters the mask of the seats that held one of them, bit i for seat i.
+     * @param alibi    the card shown to the guesser by the first of them, or null if nobody could refute.
+     */
+    default void refuted(Player guesser, int guess, int refuters, Card alibi) {}
+
+    /**
+     * Returns whether the provider has no more answers to give, such as a
+     * console whose input has ended. The game stops before the next turn.
+     *
+     * @return true once every further answer would be a default.
+     */
+    default boolean finished() {
+        return false;
+    }
+
+    /**
+     * Releases anything the provider holds open, such as a Scanner.
+     */
+    default void close() {}
+}
@@ -0,0 +1,359 @@
+package cluedo30_7;
+
+/**
+ * The Deduction class works out what one player can know about where every
+ * card is, from their own hand and from everything they see happen when
+ * guesses are refuted. It keeps, for every owner (each seat, and the solution
+ * after them), the mask of cards that owner might hold and the mask of cards
+ * it is known to hold.
+ * <p>
+ * Each refutation becomes one of three facts: a seat holds the card it showed
+ * us, a seat holds at least one of the three guessed cards (it refuted someone
+ * else), or a seat holds none of them (it couldn't refute). After each one the
+ * rules below are applied over and over until none of them changes anything:
+ * <ul>
+ * <li>A card known to be held by one owner is held by no other.</li>
+ * <li>A card only one owner might hold is held by them.</li>
+ * <li>A seat known to hold as many cards as its hand has holds nothing else,
+ * and one that might hold only that many holds all of them.</li>
+ * <li>The solution is one card of each type.</li>
+ * <li>An "at least one of" fact drops the cards its seat can't hold; once
+ * one of them is known to be held it is spent, and once only one is left
+ * the seat holds it.</li>
+ * </ul>
+ * Everything is kept in arrays sized when the Deduction is constructed, so
+ * observing and working things out never allocates.
+ */
+public final class Deduction {
+    /*
+     * The most "at least one of" facts one seat can need at once. Facts are
+     * only kept while none is a subset of another, and every fact is a subset
+     * of a guess, which has one card of each type: 4 x 5 x 5 triples plus
+     * 4 x 5 + 4 x 5 + 5 x 5 pairs.
+     */
+    private static final int FACTS_PER_SEAT = 165;
+    private static final Card.Type[] TYPES = Card.Type.values();
+
+    private final int numPlayers;
+    private final int seat;
+    private final int hand;
+    private final int[] sizes;    // [owner] how many cards they hold.
+    private final int[] possible; // [owner] the cards they might hold.
+    private final int[] known;    // [owner] the cards they are known to hold.
+    private final int[] factSeat; // [fact] the seat holding at least one of factCards.
+    private final int[] factCards;
+    private int facts;
+
+    /**
+     * Constructs a Deduction for the given seat, knowing only its own hand.
+     *
+     * @param handSizes how many cards each seat was dealt, which everyone can see.
+     * @param seat      the seat whose point of view this is.
+     * @param hand      the mask of that seat's cards.
+     * @throws IllegalArgumentException if the hands don't add up to every card
+     *                                  but the solution, or the seat's hand isn't the size given for it.
+     */
+    public Deduction(int[] handSizes, int seat, int hand) {
+        int dealt = 0;
+        for (int size : handSizes) {
+            dealt += size;
+        }
+        if (dealt != Card.values().length - 3 || seat < 0 || seat >= handSizes.length
+                || Integer.bitCount(hand & Card.ALL) != handSizes[seat]) {
+            throw new IllegalArgumentException("The hand sizes " + java.util.Arrays.toString(handSizes)
+                    + " don't fit a deal with seat " + seat + " holding " + Card.names(hand));
+        }
+        this.numPlayers = handSizes.length;
+        this.seat = seat;
+        this.hand = hand;
+        this.sizes = new int[numPlayers + 1];
+        System.arraycopy(handSizes, 0, sizes, 0, numPlayers);
+        sizes[numPlayers] = 3;
+        this.possible = new int[numPlayers + 1];
+        this.known = new int[numPlayers + 1];
+        this.factSeat = new int[FACTS_PER_SEAT * numPlayers];
+        this.factCards = new int[FACTS_PER_SEAT * numPlayers];
+        reset();
+    }
+
+    /**
+     * Forgets everything observed, back to knowing only the seat's own hand.
+     */
+    public void reset() {
+        for (int o = 0; o <= numPlayers; o++) {
+            possible[o] = o == seat ? hand : Card.ALL & ~hand;
+            known[o] = o == seat ? hand : 0;
+        }
+        facts = 0;
+        propagate();
+    }
+
+    /**
+     * Getter method for the number of seats.
+     */
+    public int numPlayers() {
+        return numPlayers;
+    }
+
+    /**
+     * Getter method for the seat whose point of view this is.
+     */
+    public int seat() {
+        return seat;
+    }
+
+    /**
+     * Getter method for the owner index standing for the solution, numPlayers().
+     */
+    public int solutionOwner() {
+        return numPlayers;
+    }
+
+    /**
+     * Getter method for the cards an owner might hold.
+     *
+     * @param owner a seat, or solutionOwner().
+     */
+    public int possible(int owner) {
+        return possible[owner];
+    }
+
+    /**
+     * Getter method for the cards an owner is known to hold.
+     *
+     * @param owner a seat, or solutionOwner().
+     */
+    public int known(int owner) {
+        return known[owner];
+    }
+
+    /**
+     * Getter method for the cards that might still be in the solution.
+     */
+    public int candidates() {
+        return possible[numPlayers];
+    }
+
+    /**
+     * Getter method for the cards known to be in the solution.
+     */
+    public int solution() {
+        return known[numPlayers];
+    }
+
+    /**
+     * Checks whether all three cards of the solution are known.
+     */
+    public boolean solved() {
+        return Integer.bitCount(known[numPlayers]) == 3;
+    }
+
+    /**
+     * Finds who holds a card, as far as is known.
+     *
+     * @param card the card to look for.
+     * @return the seat holding it, solutionOwner() if it is in the solution, or -1 if that isn't known yet.
+     */
+    public int owner(Card card) {
+        for (int o = 0; o <= numPlayers; o++) {
+            if (card.in(known[o])) {
+                return o;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Records a seat showing this seat one of its cards.
+     *
+     * @param player the seat that showed it.
+     * @param card   the card shown.
+     * @throws IllegalStateException if that contradicts what was already known.
+     */
+    public void shown(int player, Card card) {
+        known[player] |= card.mask();
+        propagate();
+    }
+
+    /**
+     * Records a seat refuting a guess without this seat seeing the card, so
+     * it holds at least one of them.
+     *
+     * @param player the seat that refuted.
+     * @param guess  the mask of the guessed cards.
+     * @throws IllegalStateException if that contradicts what was already known.
+     */
+    public void refuted(int player, int guess) {
+        if (addFact(player, guess)) {
+            propagate();
+        }
+    }
+
+    /**
+     * Records a seat being unable to refute a guess, so it holds none of them.
+     *
+     * @param player the seat that couldn't refute.
+     * @param guess  the mask of the guessed cards.
+     * @throws IllegalStateException if that contradicts what was already known.
+     */
+    public void couldNotRefute(int player, int guess) {
+        possible[player] &= ~guess;
+        propagate();
+    }
+
+    /**
+     * Records everything this seat sees of one call to Game.refute().
+     *
+     * @param guesser  the seat that guessed.
+     * @param guess    the mask of the guessed cards.
+     * @param refuters the mask of the seats that held one of them, bit i for seat i.
+     * @param alibi    the card the guesser was shown, by the first refuter in seat
+     *                 order, or null if nobody could refute.
+     * @throws IllegalStateException if that contradicts what was already known.
+     */
+    public void observe(int guesser, int guess, int refuters, Card alibi) {
+        boolean changed = false;
+        int first = alibi == null ? -1 : Integer.numberOfTrailingZeros(refuters);
+        for (int p = 0; p < numPlayers; p++) {
+            if (p == guesser || p == seat) {
+                continue;
+            }
+            if ((refuters & (1 << p)) == 0) {
+                changed |= (possible[p] & guess) != 0;
+                possible[p] &= ~guess;
+            } else if (p == first && guesser == seat) {
+                changed |= !alibi.in(known[p]);
+                known[p] |= alibi.mask();
+            } else {
+                changed |= addFact(p, guess);
+            }
+        }
+        if (changed) {
+            propagate();
+        }
+    }
+
+    /**
+     * Adds the fact that a seat holds at least one of the given cards, unless
+     * it is already known or follows from a fact already kept. Facts that
+     * follow from the new one are dropped.
+     *
+     * @return true if the fact was added.
+     */
+    private boolean addFact(int player, int cards) {
+        cards &= possible[player];
+        if ((cards & known[player]) != 0) {
+            return false;
+        }
+        for (int i = 0; i < facts; i++) {
+            if (factSeat[i] == player && (factCards[i] & ~cards) == 0) {
+                return false;
+            }
+        }
+        for (int i = facts - 1; i >= 0; i--) {
+            if (factSeat[i] == player && (cards & ~factCards[i]) == 0) {
+                removeFact(i);
+            }
+        }
+        if (facts == factCards.length) {
+            throw new IllegalStateException("More facts than any game can give");
+        }
+        factSeat[facts] = player;
+        factCards[facts++] = cards;
+        return true;
+    }
+
+    /**
+     * Removes a fact by moving the last one into its place.
+     */
+    private void removeFact(int i) {
+        facts--;
+        factSeat[i] = factSeat[facts];
+        factCards[i] = factCards[facts];
+    }
+
+    /**
+     * Applies every rule until none of them changes anything.
+     *
+     * @throws IllegalStateException if the rules find a contradiction.
+     */
+    private void propagate() {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            // Which cards nobody, exactly one owner and several owners might hold.
+            int once = 0, twice = 0, held = 0;
+            for (int o = 0; o <= numPlayers; o++) {
+                twice |= once & possible[o];
+                once |= possible[o];
+                held |= known[o];
+            }
+            if (once != Card.ALL) {
+                throw new IllegalStateException("Nobody can hold " + Card.names(Card.ALL & ~once));
+            }
+            int single = once & ~twice;
+
+            for (int o = 0; o <= numPlayers; o++) {
+                int p = possible[o] & ~(held & ~known[o]);
+                int k = known[o] | (p & single);
+                if (o == numPlayers) {
+                    for (Card.Type type : TYPES) {
+                        int pt = p & type.mask();
+                        int kt = k & type.mask();
+                        if (kt != 0) {
+                            p &= ~type.mask() | kt;
+                        } else if (Integer.bitCount(pt) == 1) {
+                            k |= pt;
+                        }
+                    }
+                } else if (Integer.bitCount(k) == sizes[o]) {
+                    p = k;
+                } else if (Integer.bitCount(p) == sizes[o]) {
+                    k = p;
+                }
+                if ((k & ~p) != 0 || Integer.bitCount(p) < sizes[o] || Integer.bitCount(k) > sizes[o]) {
+                    throw new IllegalStateException("Owner " + o + " can't hold " + Card.names(k)
+                            + " out of " + Card.names(p));
+                }
+                if (p != possible[o] || k != known[o]) {
+                    possible[o] = p;
+                    known[o] = k;
+                    changed = true;
+                }
+            }
+
+            for (int i = facts - 1; i >= 0; i--) {
+                int o = factSeat[i];
+                int cards = factCards[i] & possible[o];
+                if ((cards & known[o]) != 0) {
+                    removeFact(i);
+                } else if (cards == 0) {
+                    throw new IllegalStateException("Seat " + o + " can't hold any of " + Card.names(factCards[i]));
+                } else if (Integer.bitCount(cards) == 1) {
+                    known[o] |= cards;
+                    removeFact(i);
+                    changed = true;
+                } else {
+                    factCards[i] = cards;
+                }
+            }
+        }
+    }
+
+    /**
+     * String representation of what is known, for debugging.
+     *
+     * @return each owner's known cards and the others they might hold.
+     */
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        for (int o = 0; o <= numPlayers; o++) {
+            s.append(o == numPlayers ? "solution" : "seat " + o).append(": ")
+                    .append(Card.names(known[o])).append(" + maybe ")
+                    .append(Card.names(possible[o] & ~known[o])).append('\n');
+        }
+        return s.toString();
+    }
+}
@@ -0,0 +1,173 @@
+package cluedo30_7;
+
+import java.util.Arrays;
+import static cluedo30_7.Board.Direction;
+
+/**
+ * The DistanceField class holds, for every estate, how many moves it takes to
+ * walk into that estate from every path cell, and which way to step to get
+ * there fastest. Walls never move, so the field is worked out once by the
+ * Layout and shared by every Board on it. Other players standing in the way
+ * are ignored; Board.reachable() accounts for them.
+ */
+public final class DistanceField {
+    /**
+     * The distance given for cells that can't reach an estate at all.
+     */
+    public static final int UNREACHABLE = Short.MAX_VALUE;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final int numCells;
+    private final short[][] distance;     // [estate][cell], then [estate][numCells + other estate].
+    private final byte[][] step;          // [estate][cell] Direction ordinal, -1 if there is none.
+    private final byte[] nearest;         // [cell] the estate with the smallest distance.
+
+    /**
+     * Works out the distance field for the given layout by a breadth first search
+     * out of each estate. Estates count as nodes of their own, so a route that
+     * goes in one estate's entrance and out another is found too.
+     */
+    DistanceField(Layout layout) {
+        int numCols = layout.cols();
+        int numEstates = layout.estates().length;
+        this.numCells = layout.rows() * numCols;
+        this.distance = new short[numEstates][numCells + numEstates];
+        this.step = new byte[numEstates][numCells];
+        this.nearest = new byte[numCells];
+
+        int[] queue = new int[numCells + numEstates];
+        for (int e = 0; e < numEstates; e++) {
+            short[] dist = distance[e];
+            Arrays.fill(dist, (short) UNREACHABLE);
+            int head = 0, tail = 0;
+            dist[numCells + e] = 0;
+            queue[tail++] = numCells + e;
+            while (head < tail) {
+                int node = queue[head++];
+                short d = (short) (dist[node] + 1);
+                if (node >= numCells) {
+                    for (int exit : layout.exits(node - numCells)) {
+                        if (dist[exit] == UNREACHABLE) {
+                            dist[exit] = d;
+                            queue[tail++] = exit;
+                        }
+                    }
+                    continue;
+                }
+                for (Direction direction : DIRECTIONS) {
+                    int next = neighbour(layout, node, direction);
+                    if (next < 0) {
+                        continue;
+                    }
+                    if (layout.kind(next) == Board.ENTRANCE) {
+                        next = numCells + layout.estateId(next);
+                    } else if (layout.kind(next) != Board.PATH) {
+                        continue;
+                    }
+                    if (dist[next] == UNREACHABLE) {
+                        dist[next] = d;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+
+            for (int cell = 0; cell < numCells; cell++) {
+                step[e][cell] = -1;
+                if (layout.kind(cell) != Board.PATH || dist[cell] == UNREACHABLE) {
+                    continue;
+                }
+                for (Direction direction : DIRECTIONS) {
+                    int next = neighbour(layout, cell, direction);
+                    if (next < 0) {
+                        continue;
+                    }
+                    int nextDistance = switch (layout.kind(next)) {
+                        case Board.PATH -> dist[next];
+                        case Board.ENTRANCE -> dist[numCells + layout.estateId(next)];
+                        default -> UNREACHABLE;
+                    };
+                    if (nextDistance == dist[cell] - 1) {
+                        step[e][cell] = (byte) direction.ordinal();
+                        break;
+                    }
+                }
+            }
+        }
+
+        for (int cell = 0; cell < numCells; cell++) {
+            for (int e = 1; e < numEstates; e++) {
+                if (distance[e][cell] < distance[nearest[cell]][cell]) {
+                    nearest[cell] = (byte) e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the packed index of the cell next to the given one, or -1 off the edge of the layout.
+     */
+    private static int neighbour(Layout layout, int cell, Direction direction) {
+        int row = cell / layout.cols(), col = cell % layout.cols();
+        return switch (direction) {
+            case UP    -> row > 0                  ? cell - layout.cols() : -1;
+            case DOWN  -> row < layout.rows() - 1   ? cell + layout.cols() : -1;
+            case LEFT  -> col > 0                  ? cell - 1 : -1;
+            case RIGHT -> col < layout.cols() - 1   ? cell + 1 : -1;
+        };
+    }
+
+    /**
+     * Getter method for the number of moves from a path cell into an estate.
+     *
+     * @param estate the estate's index in Board.estates().
+     * @param cell   the packed index of a path cell.
+     * @return the distance, or UNREACHABLE.
+     */
+    public int distance(int estate, int cell) {
+        return distance[estate][cell];
+    }
+
+    /**
+     * Getter method for the number of moves from inside one estate into another.
+     *
+     * @param from the index of the estate the player is in.
+     * @param to   the index of the estate they want to reach.
+     * @return the distance, or UNREACHABLE.
+     */
+    public int estateDistance(int from, int to) {
+        return distance[to][numCells + from];
+    }
+
+    /**
+     * Getter method for the way to step from a path cell to get closer to an estate.
+     *
+     * @param estate the estate's index in Board.estates().
+     * @param cell   the packed index of a path cell.
+     * @return the direction, or null if the cell can't reach the estate.
+     */
+    public Direction nextStep(int estate, int cell) {
+        byte s = step[estate][cell];
+        return s < 0 ? null : DIRECTIONS[s];
+    }
+
+    /**
+     * Getter method for the estate closest to a path cell.
+     *
+     * @param cell the packed index of a path cell.
+     * @return the estate's index in Board.estates().
+     */
+    public int nearestEstate(int cell) {
+        return nearest[cell];
+    }
+
+    /**
+     * Getter method for the number of moves from a path cell into its nearest estate.
+     *
+     * @param cell the packed index of a path cell.
+     * @return the distance, or UNREACHABLE.
+     */
+    public int nearestDistance(int cell) {
+        return distance[nearest[cell]][cell];
+    }
+}
@@ -0,0 +1,149 @@
+package cluedo30_7;
+
+/**
+ * The EventSink interface is where a Game sends everything it would otherwise
+ * print, so the same game can run on a console or with no output at all.
+ * Every message has a Level, and a sink only keeps messages at the levels it
+ * is enabled for; messages without one are INFO. Callers check enabled()
+ * before building anything expensive, so a disabled sink costs nothing.
+ */
+public interface EventSink {
+    /**
+     * How much a message matters, from least to most.
+     */
+    enum Level {
+        /** Details for tracking down bugs, off unless asked for. */
+        DEBUG,
+        /** Everything that happens in the game, such as moves, rolls and the board. */
+        INFO,
+        /** Questions the player must see to answer. A sink flushes after each one. */
+        PROMPT
+    }
+
+    /**
+     * Writes the given text exactly as it is.
+     *
+     * @param text the text to write.
+     */
+    void print(String text);
+
+    /**
+     * Writes the given text followed by a new line.
+     *
+     * @param text the text to write.
+     */
+    default void println(String text) {
+        print(text + "\n");
+    }
+
+    /**
+     * Writes a formatted string using the given format and arguments.
+     *
+     * @param format the format string, as used by String.format.
+     * @param args   the arguments referenced by the format string.
+     */
+    default void printf(String format, Object... args) {
+        print(String.format(format, args));
+    }
+
+    /**
+     * Writes the given text at the given level, if the sink keeps that level.
+     *
+     * @param level how much the message matters.
+     * @param text  the text to write.
+     */
+    default void print(Level level, String text) {
+        if (enabled(level)) {
+            print(text);
+        }
+    }
+
+    /**
+     * Writes the given text and a new line at the given level, if the sink keeps that level.
+     *
+     * @param level how much the message matters.
+     * @param text  the text to write.
+     */
+    default void println(Level level, String text) {
+        if (enabled(level)) {
+            println(text);
+        }
+    }
+
+    /**
+     * Writes a formatted string at the given level. The string is only
+     * formatted if the sink keeps that level.
+     *
+     * @param level  how much the message matters.
+     * @param format the format string, as used by String.format.
+     * @param args   the arguments referenced by the format string.
+     */
+    default void printf(Level level, String format, Object... args) {
+        if (enabled(level)) {
+            printf(format, args);
+        }
+    }
+
+    /**
+     * Returns whether anything written to this sink will be seen, so callers
+     * can skip building large strings (like the board) for nobody.
+     *
+     * @return true if INFO output is kept, false if it is thrown away.
+     */
+    default boolean enabled() {
+        return true;
+    }
+
+    /**
+     * Returns whether messages at the given level are kept.
+     *
+     * @param level the level to check.
+     * @return true if they are kept. DEBUG is only kept by sinks asking for it.
+     */
+    default boolean enabled(Level level) {
+        return level != Level.DEBUG && enabled();
+    }
+
+    /**
+     * Scrolls what is on the screen out of sight, so the next player can't
+     * see the last player's hand.
+     */
+    default void clear() {
+        if (enabled()) {
+            print("\n".repeat(100));
+        }
+    }
+
+    /**
+     * Writes out anything the sink is holding back.
+     */
+    default void flush() {}
+
+    /**
+     * Sink that writes straight to the console.
+     */
+    EventSink CONSOLE = System.out::print;
+
+    /**
+     * Sink that discards everything, used by headless games.
+     */
+    EventSink NONE = new EventSink() {
+        @Override
+        public void print(String text) {}
+
+        @Override
+        public void println(String text) {}
+
+        @Override
+        public void printf(String format, Object... args) {}
+
+        @Override
+        public boolean enabled() { return false; }
+
+        @Override
+        public boolean enabled(Level level) { return false; }
+
+        @Override
+        public void clear() {}
+    };
+}
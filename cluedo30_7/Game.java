@@ -1,18 +1,36 @@
 package cluedo30_7;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import static cluedo30_7.EventSink.Level;
 /**
  * The Game class initializes the game and tells players when it is their turn,
- * as well as storing the board, the scanner used for reading player input,
- * all instances of the player class and the Game's Solution.
+ * as well as storing the board, the decision provider used for reading player
+ * input, the sink all output is written to, all instances of the player class,
+ * the Game's Solution and the random number generator behind its dice and deal.
+ * Each game times itself into the Metrics of the thread playing it, Metrics.local().
  */
 public class Game {
+    /**
+     * How many invalid answers a player may give to one question before the
+     * game answers it for them, unless changed with setRetries().
+     */
+    public static final int DEFAULT_RETRIES = 10;
+
+    private static final AtomicLong IDS = new AtomicLong();
 
+    private final long id = IDS.incrementAndGet();
     private final Board board;
-    private final Scanner scanner;
+    private BoardRenderer renderer;     // Null unless useRenderer() was called.
+    private final DecisionProvider decisions;
+    private EventSink out;
+    private final SplittableRandom random;
+    private Metrics metrics = Metrics.local(); // The playing thread's, once clock() starts.
     private final List<Player> players;
-    private final ArrayList<String> allCards;
-    private final ArrayList<String> solution;
+    private final int solution;
+    private int turns;
+    private int retries = DEFAULT_RETRIES;
 
 
     /*
@@ -21,55 +39,162 @@ public class Game {
      * main is run.
      */
     public Game() {
-        this.board = new Board(24, 24);
-        this.scanner = new Scanner(System.in);
+        this(new ConsoleDecisions(new Scanner(System.in)), new BufferedSink(System.out));
+    }
+
+    /**
+     * Constructs a new Game whose choices come from the given provider and whose
+     * output goes to the given sink. Bots with EventSink.NONE run headless.
+     *
+     * @param decisions where every player decision is read from.
+     * @param out       where everything the game prints is written.
+     */
+    public Game(DecisionProvider decisions, EventSink out) {
+        this(decisions, out, new SplittableRandom());
+    }
+
+    /**
+     * Constructs a new Game whose dice rolls and deal all come from the given
+     * generator, so two games built from generators with the same seed (and
+     * given the same decisions) play out identically.
+     *
+     * @param decisions where every player decision is read from.
+     * @param out       where everything the game prints is written.
+     * @param random    the game's own random number generator.
+     */
+    public Game(DecisionProvider decisions, EventSink out, SplittableRandom random) {
+        this(decisions, out, random, Layout.standard());
+    }
+
+    /**
+     * Constructs a new Game played on the given layout instead of the standard board.
+     *
+     * @param decisions where every player decision is read from.
+     * @param out       where everything the game prints is written.
+     * @param random    the game's own random number generator.
+     * @param layout    the board to play on, usually from LayoutLoader.
+     */
+    public Game(DecisionProvider decisions, EventSink out, SplittableRandom random, Layout layout) {
+        this.board = new Board(layout);
+        this.decisions = new TimedDecisions(decisions, this);
+        this.out = out;
+        this.random = random;
         this.players = new ArrayList<>();
         addPlayers();
-        this.allCards = new ArrayList<>();
         this.solution = getGlobalSolution();
     }
     public Board board() {
         return board;
     }
 
-    public Scanner scanner() {
-        return scanner;
+    /**
+     * Getter method for the number this game was given when it was made,
+     * unique within the JVM and carried by its flight recorder events.
+     */
+    public long id() {
+        return id;
+    }
+
+    /**
+     * Draws the board from now on with a BoardRenderer, which only redraws
+     * what changed each move, instead of printing it whole. Call it before
+     * the game starts, and only on a terminal BoardRenderer.screenLines() accepts.
+     *
+     * @param screenLines how many lines the terminal shows.
+     */
+    public void useRenderer(int screenLines) {
+        renderer = new BoardRenderer(board, out, screenLines);
+        out = renderer.out();
+    }
+
+    /**
+     * Shows the board to the player whose turn it is, through the renderer
+     * if the game has one, otherwise by printing it whole.
+     */
+    public void showBoard() {
+        if (renderer != null) {
+            renderer.render();
+        } else {
+            board.print(out);
+        }
+    }
+
+    public DecisionProvider decisions() {
+        return decisions;
+    }
+
+    public EventSink out() {
+        return out;
+    }
+
+    public SplittableRandom random() {
+        return random;
+    }
+
+    /**
+     * Getter method for the timings this game records into: Metrics.local()
+     * of the thread playing it, taken when clock() starts (until then, of the
+     * thread that built it). They are shared with the other games on that
+     * thread and only safe to read from it.
+     */
+    public Metrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Getter method for how many invalid answers a player may give to one
+     * question before a default answer is used instead.
+     */
+    public int retries() {
+        return retries;
+    }
+
+    /**
+     * Sets how many invalid answers a player may give to one question before a
+     * default answer is used instead, so a script or bot sending nothing but bad
+     * input still can't stall the game.
+     *
+     * @param retries the number of answers allowed, at least 1.
+     * @throws IllegalArgumentException if retries is less than 1.
+     */
+    public void setRetries(int retries) {
+        if (retries < 1) {
+            throw new IllegalArgumentException("retries must be at least 1, was " + retries);
+        }
+        this.retries = retries;
     }
 
     /**
      * Asks the user how many players there are repeatedly until it gets
-     * a valid answer. Then adds that many players to Game's list.
+     * a valid answer, or plays with 3 once it has run out of retries.
+     * Then adds that many players to Game's list.
      */
     private void addPlayers() {
-        int numPlayers = 0;
-        boolean isValidInput = false;
-
-        do {
-            System.out.print("Enter the number of players (3 to 4): ");
-            try {
-                numPlayers = Integer.parseInt(scanner().nextLine());
+        int numPlayers = 3;
 
-                if (numPlayers >= 3 && numPlayers <= 4) {
-                    isValidInput = true;
-                } else {
-                    System.out.println("Invalid number of players. The number of players must be between 3 and 4.");
-                }
-            } catch (NumberFormatException e) {
-                System.out.println("Invalid input. Please enter a valid number.");
+        for (int attempt = 0; ; attempt++) {
+            if (attempt == retries) {
+                out.println("Too many invalid answers. Playing with 3 players.");
+                numPlayers = 3;
+                break;
             }
-        } while (!isValidInput);
+            out.print(Level.PROMPT, "Enter the number of players (3 to 4): ");
+            numPlayers = decisions.numberOfPlayers();
 
-        players.add(new Player("Lucilla", this, 7, 5));
-        players.add(new Player("Bert", this, 5, 16));
-        players.add(new Player("Malina", this, 18, 7));
-        if (numPlayers == 4) {
-            players.add(new Player("Percy", this, 16, 18));
+            if (numPlayers >= 3 && numPlayers <= 4) {
+                break;
+            } else if (numPlayers == -1) {
+                out.println("Invalid input. Please enter a valid number.");
+            } else {
+                out.println("Invalid number of players. The number of players must be between 3 and 4.");
+            }
         }
 
-        for (int i = 0; i < numPlayers; i++) {
-            Player currentPlayer = player(i);
-            Cell currentPath = board.cellAt(currentPlayer.row(), currentPlayer.column());
-            currentPath.setPlayer(currentPlayer); //Set the player on the board cell.
+        String[] names = {"Lucilla", "Bert", "Malina", "Percy"};
+        for (int seat = 0; seat < numPlayers; seat++) {
+            int start = board.layout().start(seat);
+            players.add(new Player(names[seat], this, seat));
+            board.enter(player(seat), start); //Set the player on the board cell.
         }
     }
 
@@ -79,53 +204,99 @@ public class Game {
      * @param i the player's index.
      * @return player - the chosen player;
      */
-    private Player player(int i) {
+    Player player(int i) {
         return players.get(i);
     }
 
-    public String suspectCard() {
-        System.out.println("Enter a Suspect:");
-        for (String c : allCards.subList(0, 4)) {
-            System.out.println(c);
-        }
-        String suspectName = scanner().next();
-        for (String c : allCards.subList(0, 4)) {
-            if (c.equals(suspectName)) {
-                return c;
-            }
-        }
-        System.out.printf("%s isn't a valid suspect Card name\n", suspectName);
-        return suspectCard();
+    /**
+     * Getter method for the number of participants in this game.
+     */
+    public int numPlayers() {
+        return players.size();
     }
 
-    public String weaponCard() {
-        System.out.println("Enter a Weapon:");
-        for (String c : allCards.subList(4, 9)) {
-            System.out.println(c);
-        }
-        String weaponName = scanner().next();
-        for (String c : allCards.subList(4, 9)) {
-            if (c.equals(weaponName)) {
-                return c;
-            }
-        }
-        System.out.printf("%s isn't a valid weapon Card name\n", weaponName);
-        return weaponCard();
+    /**
+     * Getter method for a player's seat, the order they were added in.
+     *
+     * @param p the player to look for.
+     * @return seat - the player's index, or -1 if they aren't in this game.
+     */
+    public int seat(Player p) {
+        return players.indexOf(p);
     }
 
-    public String estateCard() {
-        System.out.println("Enter an Estate:");
-        for (String c : allCards.subList(9, 14)) {
-            System.out.println(c);
+    /**
+     * Getter method for the Zobrist hash of the position: where everyone is,
+     * what they have seen and who has used their solve attempt. It is the
+     * same as GameState.of(this, ...).hash() without the turn's keys.
+     */
+    public long hash() {
+        long hash = board.hash();
+        for (Player p : players) {
+            hash ^= p.hash();
         }
-        String estateName = scanner().next();
-        for (String c : allCards.subList(9, 14)) {
-            if (c.equals(estateName)) {
-                return c;
+        return hash;
+    }
+
+    /**
+     * Getter method for the number of turns played so far by clock().
+     */
+    public int turns() {
+        return turns;
+    }
+
+    public Card suspectCard(Player player) {
+        return chooseCard(player, Card.Type.SUSPECT, "Enter a Suspect:", "suspect");
+    }
+
+    public Card weaponCard(Player player) {
+        return chooseCard(player, Card.Type.WEAPON, "Enter a Weapon:", "weapon");
+    }
+
+    public Card estateCard(Player player) {
+        return chooseCard(player, Card.Type.ESTATE, "Enter an Estate:", "estate");
+    }
+
+    /**
+     * Asks the player for a card of the given type until they give a valid one.
+     * Once they have run out of retries, the first card of that type they have
+     * neither held nor seen is chosen for them.
+     *
+     * @param player the player choosing.
+     * @param type   the type of card wanted.
+     * @param prompt the line shown before the list of cards.
+     * @param label  the type's name used when the answer is invalid.
+     * @return card - the chosen card.
+     */
+    private Card chooseCard(Player player, Card.Type type, String prompt, String label) {
+        for (int attempt = 0; attempt < retries; attempt++) {
+            if (out.enabled(Level.PROMPT)) {
+                StringBuilder cards = new StringBuilder(prompt).append('\n');
+                for (Card c : Card.values()) {
+                    if (c.type() == type) {
+                        cards.append(c).append('\n');
+                    }
+                }
+                out.print(Level.PROMPT, cards.toString());
+            }
+            Card card = switch (type) {
+                case SUSPECT -> decisions.suspect(player);
+                case WEAPON  -> decisions.weapon(player);
+                case ESTATE  -> decisions.estate(player);
+            };
+            if (card != null && card.type() == type) {
+                return card;
+            }
+            if (out.enabled()) {
+                out.printf("%s isn't a valid %s Card name\n", card, label);
             }
         }
-        System.out.printf("%s isn't a valid estate Card name\n", estateName);
-        return estateCard();
+        int unseen = type.mask() & ~(player.hand() | player.seen());
+        Card card = Card.first(unseen != 0 ? unseen : type.mask());
+        if (out.enabled()) {
+            out.printf("Too many invalid answers. Choosing %s.\n", card);
+        }
+        return card;
     }
 
     /**
@@ -135,35 +306,71 @@ public class Game {
      * @return The sum of two 'die rolls'.
      */
     public int roll(int turn) {
-        Random random = new Random();
         int die1 = random.nextInt(6) + 1;
         int die2 = random.nextInt(6) + 1;
-        System.out.printf("Turn %d:   %d rolled\n", turn, die1 + die2);
+        if (out.enabled()) {
+            out.printf("Turn %d:   %d rolled\n", turn, die1 + die2);
+        }
         return die1 + die2;
     }
 
     /**
      * Cycles through each player in a clockwise manner, starting from the given
-     * index. Until turn() returns true, indicating the game is over.
+     * index. Until turn() returns true, indicating the game is over, every
+     * player has used up their solve attempt, or the decisions have run out.
      *
      * @param startingIndex The index of the player to start the game from.
+     * @return winner - the player who solved the mystery, or null if nobody could.
      */
-    public void clock(int startingIndex) {
-        boolean gameOver = false;
-        for (int i = 0; !gameOver; i++) {
+    public Player clock(int startingIndex) {
+        metrics = Metrics.local();
+        GameEvent event = new GameEvent();
+        event.begin();
+        Player winner = null;
+        for (int i = 0; winner == null && anyoneCanSolve() && !decisions.finished(); i++) {
             int index = (startingIndex + i) % players.size(); // Loop back to the beginning when reaching the end
             Player currentPlayer = players.get(index);
-            System.out.println("\n".repeat(100) + currentPlayer.name() +
+            turns = i + 1;
+            out.clear();
+            out.println(Level.PROMPT, currentPlayer.name() +
                     "'s Turn. \n Pass them the tablet then press any key + enter to start");
-            scanner.next();
+            decisions.handOver(currentPlayer);
+            metrics.beginTurn();
+            long start = metrics.start();
             if (currentPlayer.canSolve()) {
-                gameOver = currentPlayer.turn(roll(i+1));
+                if (currentPlayer.turn(roll(i+1))) {
+                    winner = currentPlayer;
+                }
             }
             else {
                 currentPlayer.turn(roll(i+1));
             }
+            metrics.record(Metrics.Phase.TURN, start);
         }
         terminate();
+        event.end();
+        if (event.shouldCommit()) {
+            event.gameId = id;
+            event.players = players.size();
+            event.turns = turns;
+            event.winner = winner == null ? null : winner.name();
+            event.commit();
+        }
+        return winner;
+    }
+
+    /**
+     * Checks whether any player still has their solve attempt.
+     *
+     * @return false once every player has guessed the solution incorrectly.
+     */
+    private boolean anyoneCanSolve() {
+        for (Player p : players) {
+            if (p.canSolve()) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /*
@@ -189,105 +396,210 @@ public class Game {
 
     /**
      * Returns the global solution for the game, which contains the actual suspect,
-     * weapon, and estate.
+     * weapon, and estate, and deals every other card out to the players.
      *
-     * @return The global solution for the game.
+     * @return The global solution for the game, as a mask of its three cards.
      */
-    public ArrayList<String> getGlobalSolution() {
-        allCards.add("Lucilla");         // 0
-        allCards.add("Bert"   );         // 1
-        allCards.add("Malina" );         // 2
-        allCards.add("Percy"  );         // 3
-        allCards.add("Broom"  );         // 4
-        allCards.add("Scissors");        // 5
-        allCards.add("Knife"   );        // 6
-        allCards.add("Shovel"  );        // 7
-        allCards.add("Ipad"    );        // 8
-        allCards.add("Haunted_House"   );// 9
-        allCards.add("Manic_Manor"     );//10
-        allCards.add("Calamity_Castle" );//11
-        allCards.add("Peril_Palace"    );//12
-        allCards.add("Visitation_Villa");//13
-
-        Random random = new Random();
+    public int getGlobalSolution() {
         int culpritIndex = random.nextInt(4);
         int weaponIndex  = random.nextInt(5)+4;
         int houseIndex   = random.nextInt(5)+9;
-        ArrayList<String> solution = new ArrayList<>();
-        solution.add(allCards.get(culpritIndex));
-        solution.add(allCards.get(weaponIndex ));
-        solution.add(allCards.get(houseIndex  ));
-
-        ArrayList<String> indices = new ArrayList<>();
-        for(int i =0;i<14;i++){
-            indices.add(String.valueOf(i));
+        int solution = Card.of(culpritIndex).mask()
+                | Card.of(weaponIndex).mask()
+                | Card.of(houseIndex).mask();
 
+        int[] indices = new int[11];
+        int n = 0;
+        for (int i = 0; i < 14; i++) {
+            if (!Card.of(i).in(solution)) {
+                indices[n++] = i;
+            }
         }
-        indices.remove(houseIndex  );
-        indices.remove(weaponIndex );
-        indices.remove(culpritIndex);
-        Collections.shuffle(indices);
+        shuffle(indices);
         int offset = random.nextInt(players.size());
         for(int i = 0;i<11;i++){
-            int indexOfCard = Integer.parseInt(indices.get(i));
-            player((i+offset) % players.size()).addToHand(allCards.get(indexOfCard));
+            player((i+offset) % players.size()).addToHand(Card.of(indices[i]));
         }
 
         return solution;
     }
 
     /**
-     * Checks if each player has a string matching any of the three in player's guess.
-     *              Lets players with more than one matching string choose which to share.
-     * @param guess A suspect, weapon and state the player believes committed the
-     *              crime with and within respectively.
-     * @return alibi - The first string matching an element in the players guess,
+     * Shuffles the given array in place using this game's random number generator.
+     *
+     * @param array the array to shuffle.
+     */
+    private void shuffle(int[] array) {
+        for (int i = array.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+
+    /**
+     * Checks if each player has a card matching any of the three in player's guess.
+     *              Lets players with more than one matching card choose which to share.
+     *              The decision provider is then told who could refute and what was
+     *              shown, see DecisionProvider.refuted().
+     * @param guess A mask of the suspect, weapon and estate the player believes committed
+     *              the crime with and within respectively.
+     * @return alibi - The first card shown matching an element in the players guess,
      *              or null if no matching cards are found.
      */
-    public String refute(Player guesser, ArrayList<String> guess) {
-        String alibi = null;
-        players.remove(guesser);
-        for (Player p : players) {
-            System.out.println("\n".repeat(100) + p.name() +
+    public Card refute(Player guesser, int guess) {
+        RefuteEvent event = new RefuteEvent();
+        event.begin();
+        long start = metrics.start();
+        Card alibi = null;
+        int refuters = 0;
+        for (int i = 0; i < players.size(); i++) {
+            Player p = players.get(i);
+            if (p == guesser) {
+                continue;
+            }
+            out.clear();
+            out.println(Level.PROMPT, p.name() +
                     "'s Turn to refute. \n Pass them the tablet then press any key + enter to start");
-            scanner.next();
-            if (alibi == null) {
-                alibi = p.refute(guess);
-            } else {
-                p.refute(guess);
+            decisions.handOver(p);
+            Card shown = p.refute(guess);
+            if (shown != null) {
+                refuters |= 1 << i;
+                if (alibi == null) {
+                    alibi = shown;
+                }
             }
         }
-        players.add(guesser);
+        decisions.refuted(guesser, guess, refuters, alibi);
+        metrics.record(Metrics.Phase.REFUTE, start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.gameId = id;
+            event.guesser = guesser.name();
+            event.guess = Card.names(guess);
+            event.alibi = alibi == null ? null : alibi.toString();
+            event.commit();
+        }
         return alibi;
     }
 
-    public Boolean checkSolution(ArrayList<String> guess) {
+    /**
+     * Getter method for the solution, only for GameState.of() to copy. Players
+     * find out whether they are right through checkSolution().
+     */
+    int solution() {
+        return solution;
+    }
+
+    public boolean checkSolution(int guess) {
         // Get the actual solution from the game's globalSolution
-        return guess.containsAll(this.solution) && this.solution.containsAll(guess);
+        return guess == this.solution;
     }
 
     /**
-     * Closes all open resources, such as the Scanner, at the end of the game.
+     * Closes all open resources, such as the Scanner, at the end of the game,
+     * and counts the game in its thread's metrics.
      */
     public void terminate() {
-        System.out.printf("%s did in fact commit murder with a %s in %s\n",
-                solution.get(0), solution.get(1), solution.get(2));
-        scanner.close();
+        out.printf("%s did in fact commit murder with a %s in %s\n",
+                Card.first(solution & Card.Type.SUSPECT.mask()),
+                Card.first(solution & Card.Type.WEAPON.mask()),
+                Card.first(solution & Card.Type.ESTATE.mask()));
+        out.flush();
+        decisions.close();
+        metrics.gameOver();
     }
 
     /**
      * The main method to start and run the game.
      * It initializes the game, selects a random player to start, and starts the game loop.
      *
-     * @param args The command-line arguments (not used in this implementation).
+     * @param args The command-line arguments, optionally a seed to replay a game from,
+     *             then a layout file to play on, then the least important
+     *             output Level to show (DEBUG, INFO or PROMPT) and then the
+     *             seats to be played by MctsDecisions bots, such as 123.
+     *             A seed of "-" picks one at random and a layout of "-" is the standard board.
+     *             A level that isn't one of those, or bot seats outside the
+     *             table, print the usage and end the program.
+     *             Bots are seeded from the game's seed without drawing from the
+     *             game's generator, so adding bot seats leaves the deal and dice unchanged.
      */
-    public static void main(String[] args) {
-        Game game = new Game();
+    public static void main(String[] args) throws IOException {
+        long seed = args.length > 0 && !args[0].equals("-")
+                ? Long.parseLong(args[0]) : new SplittableRandom().nextLong();
+        SplittableRandom random = new SplittableRandom(seed);
+        Layout layout = args.length > 1 && !args[1].equals("-")
+                ? LayoutLoader.load(java.nio.file.Path.of(args[1])) : Layout.standard();
+        Level level = Level.INFO;
+        if (args.length > 2) {
+            try {
+                level = Level.valueOf(args[2].toUpperCase());
+            } catch (IllegalArgumentException e) {
+                usage("The output level must be DEBUG, INFO or PROMPT, was " + args[2]);
+                return;
+            }
+        }
+        // Scripts piped in are read by the much faster ScriptedDecisions.
+        DecisionProvider decisions = System.console() != null
+                ? new ConsoleDecisions(new Scanner(System.in))
+                : new ScriptedDecisions(System.in);
+        int bots = 0;
+        if (args.length > 3) {
+            bots = botSeats(args[3], 4);
+            if (bots < 0) {
+                usage(botSeatsProblem(args[3], 4));
+                return;
+            }
+            decisions = new MctsDecisions(decisions, bots, MctsDecisions.DEFAULT_BUDGET_NANOS,
+                    Runtime.getRuntime().availableProcessors(), ~seed);
+        }
+        Game game = new Game(decisions, new BufferedSink(System.out, level), random, layout);
+        if (bots >>> game.numPlayers() != 0) {
+            decisions.close();
+            usage(botSeatsProblem(args[3], game.numPlayers()));
+            return;
+        }
+        int screenLines = BoardRenderer.screenLines(layout);
+        if (screenLines > 0) {
+            game.useRenderer(screenLines);
+        }
 
-        Random random = new Random();
-        int startingIndex = random.nextInt(game.players.size()); //picks a random player to start
+        int startingIndex = game.random().nextInt(game.players.size()); //picks a random player to start
         game.clock(startingIndex);
+        game.metrics().flush();
+    }
 
-        game.terminate();
+    /**
+     * Reads the seats to be played by bots from the command line.
+     *
+     * @param seats      the seat numbers, one digit each, such as 13.
+     * @param numPlayers how many seats there are.
+     * @return the mask of the seats, bit i for seat i, or -1 if a character isn't a seat.
+     */
+    private static int botSeats(String seats, int numPlayers) {
+        int bots = 0;
+        for (char seat : seats.toCharArray()) {
+            if (seat < '0' || seat >= '0' + numPlayers) {
+                return -1;
+            }
+            bots |= 1 << (seat - '0');
+        }
+        return bots;
+    }
+
+    /**
+     * Says what is wrong with bot seats that botSeats() rejected, for usage().
+     */
+    private static String botSeatsProblem(String seats, int numPlayers) {
+        return "Bot seats must be digits from 0 to " + (numPlayers - 1) + ", was " + seats;
+    }
+
+    /**
+     * Prints how to start a game, after what was wrong with the arguments given.
+     */
+    private static void usage(String problem) {
+        System.err.println(problem);
+        System.err.println("Usage: java cluedo30_7.Game [seed|-] [layout|-] [DEBUG|INFO|PROMPT] [bot seats, e.g. 13]");
     }
 }
\ No newline at end of file
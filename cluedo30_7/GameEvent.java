@@ -0,0 +1,39 @@
+package cluedo30_7;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The GameEvent class covers a whole game, from its first turn to its end.
+ * <p>
+ * It and the other Java Flight Recorder events for the parts of a game
+ * (TurnEvent, MoveEvent, RefuteEvent and SolveEvent) let a recording's
+ * profile be lined up with the games, turns and moves it was taken during.
+ * Every event is disabled unless a recording turns it on, e.g. with a .jfc
+ * file setting cluedo30_7.Turn#enabled=true, and until then each costs one
+ * shouldCommit() check. Fields are only filled in once that check passes.
+ */
+@Name("cluedo30_7.Game")
+@Label("Game")
+@Category("Cluedo")
+@Description("A whole game, from the first turn to the end")
+@Enabled(false)
+@StackTrace(false)
+final class GameEvent extends Event {
+    @Label("Game Id")
+    long gameId;
+
+    @Label("Players")
+    int players;
+
+    @Label("Turns")
+    int turns;
+
+    @Label("Winner")
+    String winner;
+}
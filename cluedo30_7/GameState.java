@@ -0,0 +1,432 @@
+package cluedo30_7;
+
+/**
+ * The GameState class is an immutable snapshot of everything that decides how
+ * a game goes on from here, for search code to explore without touching the
+ * live Game: where each seat is, their hands and the cards they have been
+ * shown as Card masks, who can still solve, whose turn it is and the seed of
+ * the dice. It is a handful of primitives over a shared Layout, so copying
+ * one is just passing the reference, and each apply method returns a new
+ * state in a few instructions while leaving this one as it was.
+ * <p>
+ * A turn goes applyRoll(), then at most one applyMove() to a cell from
+ * reachable(), then applyGuess(), applySolve() or applyPass() to hand over to
+ * the next seat. A player already in an estate may guess without moving.
+ * Where the live game would ask a player which card to show, a state picks
+ * one at random, drawn from the same seed as the dice, and refuters are asked
+ * in seat order as in Game.refute().
+ * <p>
+ * Each state carries its Zobrist hash, updated by the apply methods with the
+ * keys that changed, for looking positions up in a TranspositionTable. Two
+ * states differing only in the turn count or the dice are the same position.
+ */
+public final class GameState {
+    /*
+     * Each seat's location, hand and seen cards are 16 bits of a long,
+     * seat 0 in the lowest; Card masks fit in 14 bits and packed indices of
+     * any layout up to MAX_CELLS in 16.
+     */
+    private static final int MAX_CELLS = 0xFFFF;
+    private static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final Layout layout;
+    private final long locations; // [seat] packed index of their cell, the estate's home cell if they're in one.
+    private final long hands;
+    private final long seen;
+    private final int solution;
+    private final int numPlayers;
+    private final int seat;       // Whose turn it is.
+    private final int canSolve;   // Mask of the seats still holding their solve attempt.
+    private final int winner;     // The seat that solved the mystery, or -1.
+    private final int turn;       // How many turns have been rolled for.
+    private final int movesLeft;
+    private final long seed;      // SplitMix64 state the dice are drawn from.
+    private final long hash;
+
+    private GameState(Layout layout, long locations, long hands, long seen, int solution, int numPlayers,
+                      int seat, int canSolve, int winner, int turn, int movesLeft, long seed, long hash) {
+        this.layout = layout;
+        this.locations = locations;
+        this.hands = hands;
+        this.seen = seen;
+        this.solution = solution;
+        this.numPlayers = numPlayers;
+        this.seat = seat;
+        this.canSolve = canSolve;
+        this.winner = winner;
+        this.turn = turn;
+        this.movesLeft = movesLeft;
+        this.seed = seed;
+        this.hash = hash;
+    }
+
+    /**
+     * Takes a snapshot of a live game. The game's own random number generator
+     * can't be copied without drawing from it, which would change how the
+     * game goes, so the snapshot's dice are seeded separately.
+     *
+     * @param game      the game to copy.
+     * @param seat      the seat whose turn it is.
+     * @param movesLeft how many moves they have left, 0 if they haven't rolled yet.
+     * @param seed      the seed for the snapshot's dice.
+     * @return the snapshot.
+     * @throws IllegalArgumentException if the game's layout has too many cells to pack.
+     */
+    public static GameState of(Game game, int seat, int movesLeft, long seed) {
+        Board board = game.board();
+        checkSize(board.layout());
+        long locations = 0, hands = 0, seen = 0;
+        int canSolve = 0;
+        for (int s = 0; s < game.numPlayers(); s++) {
+            Player p = game.player(s);
+            locations = with(locations, s, board.location(s));
+            hands = with(hands, s, p.hand());
+            seen = with(seen, s, p.seen());
+            if (p.canSolve()) {
+                canSolve |= 1 << s;
+            }
+        }
+        long hash = game.hash() ^ Zobrist.toMove(seat) ^ Zobrist.movesLeft(movesLeft);
+        return new GameState(board.layout(), locations, hands, seen, game.solution(), game.numPlayers(),
+                seat, canSolve, -1, game.turns(), movesLeft, seed, hash);
+    }
+
+    /**
+     * Deals a new game the same way Game does: one card of each type for the
+     * solution and the rest shuffled and dealt around the seats, everyone on
+     * their starting cell and seat 0 to roll first.
+     *
+     * @param layout     the board to play on.
+     * @param numPlayers how many seats, from 3 to 4.
+     * @param seed       the seed for the deal and the dice.
+     * @return the new game's state.
+     * @throws IllegalArgumentException if there are too few or many players, or
+     *                                  the layout has too many cells to pack.
+     */
+    public static GameState deal(Layout layout, int numPlayers, long seed) {
+        if (numPlayers < 3 || numPlayers > 4) {
+            throw new IllegalArgumentException("The number of players must be between 3 and 4, was " + numPlayers);
+        }
+        checkSize(layout);
+        int solution = Card.of(draw(seed += GAMMA, 4)).mask()
+                | Card.of(draw(seed += GAMMA, 5) + 4).mask()
+                | Card.of(draw(seed += GAMMA, 5) + 9).mask();
+        int[] deck = new int[11];
+        int n = 0;
+        for (int i = 0; i < 14; i++) {
+            if (!Card.of(i).in(solution)) {
+                deck[n++] = i;
+            }
+        }
+        for (int i = deck.length - 1; i > 0; i--) {
+            int j = draw(seed += GAMMA, i + 1);
+            int tmp = deck[i];
+            deck[i] = deck[j];
+            deck[j] = tmp;
+        }
+        int offset = draw(seed += GAMMA, numPlayers);
+        long locations = 0, hands = 0;
+        for (int i = 0; i < deck.length; i++) {
+            int s = (i + offset) % numPlayers;
+            hands = with(hands, s, get(hands, s) | Card.of(deck[i]).mask());
+        }
+        long hash = Zobrist.toMove(0) ^ Zobrist.movesLeft(0);
+        for (int s = 0; s < numPlayers; s++) {
+            locations = with(locations, s, layout.start(s));
+            hash ^= layout.zobrist().location(s, layout.start(s));
+        }
+        return new GameState(layout, locations, hands, 0, solution, numPlayers,
+                0, (1 << numPlayers) - 1, -1, 0, 0, seed, hash);
+    }
+
+    private static void checkSize(Layout layout) {
+        if (layout.rows() * layout.cols() > MAX_CELLS) {
+            throw new IllegalArgumentException("Layouts over " + MAX_CELLS + " cells can't be packed into a GameState");
+        }
+    }
+
+    /**
+     * Returns a copy of this state with the cards dealt differently, for search
+     * code to fill in what one player can't see with a guess of its own.
+     *
+     * @param solution the mask of the three solution cards.
+     * @param hands    each seat's hand.
+     * @param seen     the cards each seat has been shown.
+     * @return the state with the new cards and everything else the same.
+     */
+    public GameState withCards(int solution, int[] hands, int[] seen) {
+        long newHands = 0, newSeen = 0;
+        long newHash = hash;
+        for (int s = 0; s < numPlayers; s++) {
+            newHands = with(newHands, s, hands[s]);
+            newSeen = with(newSeen, s, seen[s]);
+            newHash ^= Zobrist.seen(s, seen(s)) ^ Zobrist.seen(s, seen[s]);
+        }
+        return new GameState(layout, locations, newHands, newSeen, solution, numPlayers,
+                seat, canSolve, winner, turn, movesLeft, seed, newHash);
+    }
+
+    public Layout layout()  { return layout; }
+    public int numPlayers() { return numPlayers; }
+    public int seat()       { return seat; }
+    public int turn()       { return turn; }
+    public int movesLeft()  { return movesLeft; }
+    public int solution()   { return solution; }
+
+    /**
+     * Getter method for the Zobrist hash of the position: where everyone is,
+     * what they have seen, who can still solve, who has won, whose turn it is
+     * and how many moves they have left.
+     */
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * Getter method for the seat that solved the mystery.
+     *
+     * @return the winner's seat, or -1 if nobody has yet.
+     */
+    public int winner() {
+        return winner;
+    }
+
+    /**
+     * Checks whether the game is over: someone has solved the mystery or
+     * everyone has used up their solve attempt.
+     */
+    public boolean over() {
+        return winner >= 0 || canSolve == 0;
+    }
+
+    /**
+     * Getter method for where a seat is.
+     *
+     * @param s the player's seat.
+     * @return the packed index of their cell, the estate's home cell if they're in an estate.
+     */
+    public int location(int s) {
+        return get(locations, s);
+    }
+
+    /**
+     * Getter method for the estate a seat is in.
+     *
+     * @param s the player's seat.
+     * @return the estate's index in Layout.estates(), or -1 if they're on a path.
+     */
+    public int estateOf(int s) {
+        return layout.estateId(location(s));
+    }
+
+    public int hand(int s) { return get(hands, s); }
+    public int seen(int s) { return get(seen, s); }
+
+    /**
+     * Checks whether a seat still has their solve attempt.
+     */
+    public boolean canSolve(int s) {
+        return (canSolve & (1 << s)) != 0;
+    }
+
+    /**
+     * Rolls the dice for the seat whose turn it is.
+     *
+     * @return the state with the turn started and movesLeft() set to the roll.
+     * @throws IllegalStateException if the game is over.
+     */
+    public GameState applyRoll() {
+        if (over()) {
+            throw new IllegalStateException("The game is over");
+        }
+        long s = seed;
+        int roll = draw(s += GAMMA, 6) + draw(s += GAMMA, 6) + 2;
+        return new GameState(layout, locations, hands, seen, solution, numPlayers,
+                seat, canSolve, winner, turn + 1, roll, s,
+                hash ^ Zobrist.movesLeft(movesLeft) ^ Zobrist.movesLeft(roll));
+    }
+
+    /**
+     * Finds every cell and estate the seat whose turn it is could move to with
+     * the moves they have left, the same way Board.reachable() does.
+     *
+     * @param out the set to fill in, emptied first; built for this state's layout.
+     */
+    public void reachable(Reachable out) {
+        long[] occupied = out.occupied();
+        for (int s = 0; s < numPlayers; s++) {
+            int i = location(s);
+            if (s != seat && layout.kind(i) == Board.PATH) {
+                occupied[i >>> 6] |= 1L << i;
+            }
+        }
+        Board.reachable(layout, occupied, location(seat), movesLeft, out);
+        java.util.Arrays.fill(occupied, 0);
+    }
+
+    /**
+     * Moves the seat whose turn it is, using up the rest of their roll. Only
+     * the destination is checked, so it should come from reachable().
+     *
+     * @param to the packed index of a path cell, or of any entrance or cell of an estate.
+     * @return the state with the seat moved.
+     * @throws IllegalArgumentException if the cell is a wall or another player is standing on it.
+     */
+    public GameState applyMove(int to) {
+        switch (layout.kind(to)) {
+            case Board.PATH -> {
+                for (int s = 0; s < numPlayers; s++) {
+                    if (s != seat && location(s) == to) {
+                        throw new IllegalArgumentException("Moving onto a filled Cell");
+                    }
+                }
+            }
+            case Board.ENTRANCE, Board.ESTATE -> to = layout.home(layout.estateId(to));
+            default -> throw new IllegalArgumentException("Walls can't store players");
+        }
+        Zobrist zobrist = layout.zobrist();
+        return new GameState(layout, with(locations, seat, to), hands, seen, solution, numPlayers,
+                seat, canSolve, winner, turn, 0, seed,
+                hash ^ zobrist.location(seat, location(seat)) ^ zobrist.location(seat, to)
+                        ^ Zobrist.movesLeft(movesLeft) ^ Zobrist.movesLeft(0));
+    }
+
+    /**
+     * Makes a guess for the seat whose turn it is and ends their turn. The
+     * first other seat holding any of the cards shows them one at random.
+     *
+     * @param guess a mask of a suspect, a weapon and the estate the seat is in.
+     * @return the state with the card shown added to the guesser's seen cards.
+     * @throws IllegalStateException if the seat isn't in an estate.
+     */
+    public GameState applyGuess(int guess) {
+        int estate = checkInEstate();
+        guess = guess & ~Card.Type.ESTATE.mask() | layout.estates()[estate].card().mask();
+        long newSeen = seen;
+        long newHash = hash ^ endTurn();
+        long newSeed = seed;
+        for (int s = 0; s < numPlayers; s++) {
+            int matching = hand(s) & guess;
+            if (s != seat && matching != 0) {
+                Card alibi = Card.nth(matching, draw(newSeed += GAMMA, Integer.bitCount(matching)));
+                if (!alibi.in(seen(seat))) {
+                    newSeen = with(seen, seat, seen(seat) | alibi.mask());
+                    newHash ^= Zobrist.seen(seat, alibi);
+                }
+                break;
+            }
+        }
+        return new GameState(layout, locations, hands, newSeen, solution, numPlayers,
+                next(), canSolve, winner, turn, 0, newSeed, newHash);
+    }
+
+    /**
+     * Makes a solution attempt for the seat whose turn it is and ends their
+     * turn: they win if it is right and lose their attempt if it isn't.
+     *
+     * @param guess a mask of a suspect, a weapon and the estate the seat is in.
+     * @return the state after the attempt.
+     * @throws IllegalStateException if the seat isn't in an estate or has already tried.
+     */
+    public GameState applySolve(int guess) {
+        int estate = checkInEstate();
+        if (!canSolve(seat)) {
+            throw new IllegalStateException("Seat " + seat + " already made a solve attempt");
+        }
+        guess = guess & ~Card.Type.ESTATE.mask() | layout.estates()[estate].card().mask();
+        if (guess == solution) {
+            return new GameState(layout, locations, hands, seen, solution, numPlayers,
+                    seat, canSolve, seat, turn, 0, seed,
+                    hash ^ Zobrist.winner(seat) ^ Zobrist.movesLeft(movesLeft) ^ Zobrist.movesLeft(0));
+        }
+        return new GameState(layout, locations, hands, seen, solution, numPlayers,
+                next(), canSolve & ~(1 << seat), winner, turn, 0, seed,
+                hash ^ endTurn() ^ Zobrist.solved(seat));
+    }
+
+    /**
+     * Ends the turn of the seat whose turn it is without a guess.
+     *
+     * @return the state with the next seat to roll.
+     */
+    public GameState applyPass() {
+        return new GameState(layout, locations, hands, seen, solution, numPlayers,
+                next(), canSolve, winner, turn, 0, seed, hash ^ endTurn());
+    }
+
+    private int next() {
+        return seat + 1 == numPlayers ? 0 : seat + 1;
+    }
+
+    /**
+     * Returns the keys that change when the turn passes to the next seat.
+     */
+    private long endTurn() {
+        return Zobrist.toMove(seat) ^ Zobrist.toMove(next()) ^ Zobrist.movesLeft(movesLeft) ^ Zobrist.movesLeft(0);
+    }
+
+    private int checkInEstate() {
+        int estate = estateOf(seat);
+        if (estate < 0) {
+            throw new IllegalStateException("Seat " + seat + " can only guess from inside an estate");
+        }
+        return estate;
+    }
+
+    /**
+     * Returns 16 bits of a packed long.
+     */
+    private static int get(long packed, int s) {
+        return (int) (packed >>> (s << 4)) & 0xFFFF;
+    }
+
+    /**
+     * Returns a packed long with one seat's 16 bits replaced.
+     */
+    private static long with(long packed, int s, int value) {
+        int shift = s << 4;
+        return packed & ~(0xFFFFL << shift) | (long) value << shift;
+    }
+
+    /**
+     * Draws a number from 0 to bound - 1 from a SplitMix64 state, already advanced.
+     */
+    private static int draw(long state, int bound) {
+        long z = state;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (int) (((z >>> 32) * bound) >>> 32);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof GameState other && layout == other.layout
+                && locations == other.locations && hands == other.hands && seen == other.seen
+                && solution == other.solution && numPlayers == other.numPlayers && seat == other.seat
+                && canSolve == other.canSolve && winner == other.winner && turn == other.turn
+                && movesLeft == other.movesLeft && seed == other.seed;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash ^ seed * 31 + turn);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder("GameState[turn ").append(turn).append(", seat ").append(seat)
+                .append(", ").append(movesLeft).append(" moves left");
+        for (int p = 0; p < numPlayers; p++) {
+            s.append(", ").append(p).append(": ").append(location(p)).append(' ')
+                    .append(Card.names(hand(p))).append(" seen ").append(Card.names(seen(p)));
+            if (!canSolve(p)) {
+                s.append(" can't solve");
+            }
+        }
+        if (winner >= 0) {
+            s.append(", won by ").append(winner);
+        }
+        return s.append(']').toString();
+    }
+}
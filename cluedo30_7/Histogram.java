@@ -0,0 +1,85 @@
+package cluedo30_7;
+
+/**
+ * The Histogram class counts how long something took, in buckets that double
+ * in width (0, 1, 2-3, 4-7, ... nanoseconds), so recording a time is a few
+ * instructions and the whole histogram is a fixed 65 longs however many times
+ * are recorded. Percentiles are accurate to within a factor of two, which is
+ * plenty to tell where time goes. Not thread safe: each game records into its
+ * own histograms, and they are added together afterwards.
+ */
+public final class Histogram {
+    private final long[] buckets = new long[65]; // [64 - leading zeros] times with that many significant bits.
+    private long count;
+    private long sum;
+    private long max;
+
+    /**
+     * Records one time.
+     *
+     * @param nanos how long it took, in nanoseconds.
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets[64 - Long.numberOfLeadingZeros(nanos)]++;
+        count++;
+        sum += nanos;
+        max = Math.max(max, nanos);
+    }
+
+    /**
+     * Adds every time recorded by another histogram to this one.
+     *
+     * @param other the histogram to add.
+     */
+    public void add(Histogram other) {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] += other.buckets[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Forgets every recorded time.
+     */
+    public void clear() {
+        java.util.Arrays.fill(buckets, 0);
+        count = sum = max = 0;
+    }
+
+    public long count() { return count; }
+    public long sum()   { return sum; }
+    public long max()   { return max; }
+
+    /**
+     * Getter method for the average time recorded.
+     *
+     * @return the mean in nanoseconds, or 0 if nothing was recorded.
+     */
+    public double mean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Returns a time that the given fraction of recorded times were no longer than.
+     *
+     * @param fraction the percentile wanted, from 0 to 1 (e.g. 0.99).
+     * @return the upper end of the bucket holding that percentile, in
+     *         nanoseconds, or 0 if nothing was recorded.
+     */
+    public long percentile(double fraction) {
+        long wanted = (long) Math.ceil(fraction * count);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= wanted && seen > 0) {
+                return i == 0 ? 0 : Math.min(max, i == 64 ? Long.MAX_VALUE : (1L << i) - 1);
+            }
+        }
+        return 0;
+    }
+}
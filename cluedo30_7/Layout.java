@@ -0,0 +1,269 @@
+package cluedo30_7;
+
+import java.util.Arrays;
+import static cluedo30_7.Board.Direction;
+
+/**
+ * The Layout class holds everything about a Hobby Detectives board that never
+ * changes during a game: the Cell objects, the estates and their entrances,
+ * where each seat starts, the packed kind and estate arrays, the bitsets
+ * Board.reachable() steps through, the distance field and the Zobrist keys
+ * positions on it are hashed with. Layouts are built
+ * by LayoutLoader and shared by every Board on them; nothing in one is written
+ * to after construction, so games on different threads can read it freely.
+ * Who is standing where lives in each Board.
+ */
+public final class Layout {
+    private static final Layout STANDARD = LayoutLoader.build(LayoutLoader.STANDARD);
+
+    private final int numRows;
+    private final int numCols;
+    private final Cell[][] cells;
+    private final byte[] kinds;
+    private final byte[] estateIds;
+    private final byte[] boxIds;  // The estate whose walls (or inside) a cell is part of, or -1.
+    private final int[][] boxes;  // [estate] first row, first column, last row and last column of its walls.
+    private final int[] starts;   // [seat] the packed index of the cell the seat starts on.
+    private final int[] homes;    // [estate] the packed index of the cell players in it are placed on.
+
+    /*
+     * The same layout again as bitsets over the packed indices (bit i of the
+     * whole array for cell i), used by Board.reachable() to step a whole
+     * frontier of cells at once.
+     */
+    private final long[] pathBits;
+    private final long[] entranceBits;
+    private final long[] notFirstCol; // Every cell except those in column 0.
+    private final long[] notLastCol;  // Every cell except those in the last column.
+    private final int[][] exits; // [estate] the cells Estate.exit() leaves onto, one per side at most.
+    private final DistanceField distances;
+    private final Zobrist zobrist;
+
+    /**
+     * In the order they are declared, for the standard layout:
+     * 0 = Haunted House
+     * 1 = Manic Manor
+     * 2 = Calamity Castle
+     * 3 = Peril Palace
+     * 4 = Visitation Villa
+     */
+    private final Estate[] estates;
+
+    /**
+     * Constructs a Layout from cells already laid out by LayoutLoader.
+     *
+     * @param cells   the board's cells, [row][column].
+     * @param estates every estate on the board, each already holding its entrances.
+     * @param starts  the packed index of the cell each seat starts on.
+     */
+    Layout(Cell[][] cells, Estate[] estates, int[] starts) {
+        this.numRows = cells.length;
+        this.numCols = cells[0].length;
+        this.cells = cells;
+        this.estates = estates;
+        this.starts = starts;
+        this.kinds = new byte[numRows * numCols];
+        this.estateIds = new byte[numRows * numCols];
+        this.boxIds = new byte[numRows * numCols];
+        this.boxes = new int[estates.length][];
+        this.homes = new int[estates.length];
+        this.exits = new int[estates.length][];
+        int words = (numRows * numCols + 63) >>> 6;
+        this.pathBits = new long[words];
+        this.entranceBits = new long[words];
+        this.notFirstCol = new long[words];
+        this.notLastCol = new long[words];
+        this.pack();
+        this.distances = new DistanceField(this);
+        this.zobrist = new Zobrist(this);
+    }
+
+    /**
+     * Getter method for the standard 24 by 24 Hobby Detectives layout.
+     *
+     * @return the layout, shared by every game.
+     */
+    public static Layout standard() {
+        return STANDARD;
+    }
+
+    public int rows() { return numRows; }
+    public int cols() { return numCols; }
+    public Estate[] estates() { return estates; }
+
+    /**
+     * Returns the packed index of the cell at the given row and column.
+     *
+     * @param row   the Y coordinate of the cell.
+     * @param col   the X coordinate of the cell.
+     * @return index - row * cols() + col.
+     */
+    public int index(int row, int col) {
+        return row * numCols + col;
+    }
+
+    /**
+     * Getter method for the kind of a cell.
+     *
+     * @param i the packed index of the cell.
+     * @return Board.PATH, WALL, ENTRANCE or ESTATE.
+     */
+    public byte kind(int i) {
+        return kinds[i];
+    }
+
+    /**
+     * Getter method for the index in estates() of the estate a cell belongs to.
+     *
+     * @param i the packed index of the cell.
+     * @return the estate's index, or -1 if the cell isn't an entrance or estate.
+     */
+    public int estateId(int i) {
+        return estateIds[i];
+    }
+
+    /**
+     * Getter method for the estate whose walls surround a cell.
+     *
+     * @param i the packed index of the cell.
+     * @return the estate's index in estates(), or -1 if the cell is outside every estate.
+     */
+    public int boxId(int i) {
+        return boxIds[i];
+    }
+
+    /**
+     * Getter method for the rectangle an estate is drawn in, walls included.
+     *
+     * @param estate the estate's index in estates().
+     * @return its first row, first column, last row and last column.
+     */
+    public int[] box(int estate) {
+        return boxes[estate];
+    }
+
+    /**
+     * Getter method for the cell standing for a whole estate: every player in
+     * the estate is placed on it, whichever entrance they came in by.
+     *
+     * @param estate the estate's index in estates().
+     * @return the packed index of the estate's first cell.
+     */
+    public int home(int estate) {
+        return homes[estate];
+    }
+
+    /**
+     * Getter method for where a seat starts the game.
+     *
+     * @param seat the player's seat, from 0 to 3.
+     * @return the packed index of their starting cell.
+     */
+    public int start(int seat) {
+        return starts[seat];
+    }
+
+    /**
+     * Getter method for Cells
+     *
+     * @param row   the Y coordinate of the desired cell
+     * @param col   the X coordinate of the desired cell
+     * @return Cell the desired Cell
+     */
+    public Cell cellAt(int row, int col) {
+        return cells[row][col];
+    }
+
+    /**
+     * Getter method for the cells a player leaving an estate can step onto,
+     * the same ones Estate.move() takes them to.
+     *
+     * @param estate the estate's index in estates().
+     * @return the packed indices of the estate's exit(direction) cells, for each direction with one.
+     */
+    public int[] exits(int estate) {
+        return exits[estate];
+    }
+
+    /**
+     * Getter method for the distances from every path cell to every estate.
+     */
+    public DistanceField distances() {
+        return distances;
+    }
+
+    /**
+     * Getter method for the keys positions on this layout are hashed with.
+     */
+    public Zobrist zobrist() {
+        return zobrist;
+    }
+
+    /*
+     * Getter methods for the packed arrays, read directly by Board.
+     */
+    byte[] kinds()        { return kinds; }
+    byte[] estateIds()    { return estateIds; }
+    long[] pathBits()     { return pathBits; }
+    long[] entranceBits() { return entranceBits; }
+    long[] notFirstCol()  { return notFirstCol; }
+    long[] notLastCol()   { return notLastCol; }
+
+    /**
+     * Fills in the packed kind and estate arrays from the cells laid out by LayoutLoader.
+     */
+    private void pack() {
+        for (int row = 0; row < numRows; row++) {
+            for (int col = 0; col < numCols; col++) {
+                int i = index(row, col);
+                Cell cell = cells[row][col];
+                estateIds[i] = -1;
+                kinds[i] = cell.kind();
+                if (kinds[i] == Board.ENTRANCE || kinds[i] == Board.ESTATE) {
+                    Estate estate = kinds[i] == Board.ENTRANCE ? ((Entrance) cell).estate() : (Estate) cell;
+                    for (byte e = 0; e < estates.length; e++) {
+                        if (estates[e] == estate) {
+                            estateIds[i] = e;
+                        }
+                    }
+                }
+                if (kinds[i] == Board.PATH) {
+                    pathBits[i >>> 6] |= 1L << i;
+                } else if (kinds[i] == Board.ENTRANCE) {
+                    entranceBits[i >>> 6] |= 1L << i;
+                }
+                if (col != 0) {
+                    notFirstCol[i >>> 6] |= 1L << i;
+                }
+                if (col != numCols - 1) {
+                    notLastCol[i >>> 6] |= 1L << i;
+                }
+            }
+        }
+        for (int e = 0; e < estates.length; e++) {
+            int top = numRows, left = numCols, bottom = -1, right = -1;
+            for (int i = 0; i < kinds.length; i++) {
+                if (kinds[i] == Board.ESTATE && estateIds[i] == e) {
+                    top    = Math.min(top, i / numCols - 1);
+                    left   = Math.min(left, i % numCols - 1);
+                    bottom = Math.max(bottom, i / numCols + 1);
+                    right  = Math.max(right, i % numCols + 1);
+                }
+            }
+            boxes[e] = new int[] {top, left, bottom, right};
+            homes[e] = index(top + 1, left + 1);
+        }
+        Arrays.fill(boxIds, (byte) -1);
+        for (int e = 0; e < estates.length; e++) {
+            for (int row = boxes[e][0]; row <= boxes[e][2]; row++) {
+                for (int col = boxes[e][1]; col <= boxes[e][3]; col++) {
+                    boxIds[index(row, col)] = (byte) e;
+                }
+            }
+        }
+        for (int e = 0; e < estates.length; e++) {
+            Estate estate = estates[e];
+            exits[e] = Arrays.stream(Direction.values()).mapToInt(estate::exit).filter(i -> i >= 0).toArray();
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package cluedo30_7;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static cluedo30_7.Board.Direction;
+
+/**
+ * The LayoutLoader class builds Layouts from a compact text description, so
+ * new boards can be played without changing any code. A description is a list
+ * of estates followed by the board itself, one character per cell, as in
+ * this corner of one:
+ * <pre>
+ * # Comments start with a hash and a space.
+ * estate H Haunted_House
+ * ..#####..
+ * ..#HHHh..
+ * ..#####1.
+ * </pre>
+ * '.' is a path, '#' a wall, an estate's upper case letter is a cell inside
+ * it and its lower case letter an entrance to it. Each estate is a rectangle
+ * of its letter inside a ring of walls, and its entrances are in that ring,
+ * off the corners, each with a path outside. The digits 1 to 4 are the
+ * path cells each seat starts on. There is one estate for each estate card,
+ * named after it, since the solution can be any of them. An estate's name is
+ * written inside it one word per row, unless it is given a label after its
+ * name ('_' for a space, '/' for a new row). Each estate's picture and the
+ * cells a player leaves it onto are worked out here from its walls and
+ * entrances. Only the standard board is kept; it is built once and shared.
+ */
+public final class LayoutLoader {
+    /**
+     * The standard 24 by 24 Hobby Detectives board.
+     */
+    static final String STANDARD = """
+            estate H Haunted_House
+            estate M Manic_Manor
+            estate C Calamity_Castle
+            estate P Peril_Palace
+            estate V Visitation_Villa Visit_Villa
+            ........................
+            ........................
+            ..#####..........#####..
+            ..#HHHh..........#MMM#..
+            ..#HHH#..........#MMM#..
+            ..#HHH#....##...2mMMM#..
+            ..###h#....##....###m#..
+            .....1..................
+            ........................
+            ........................
+            .........###v##.........
+            .....##..#VVVVv..##.....
+            .....##..vVVVV#..##.....
+            .........##v###.........
+            ........................
+            ........................
+            ..................4.....
+            ..#c###....##....#p###..
+            ..#CCCc3...##....#PPP#..
+            ..#CCC#..........#PPP#..
+            ..#CCC#..........pPPP#..
+            ..#####..........#####..
+            ........................
+            ........................
+            """;
+
+    private static final int SEATS = 4;
+
+    private LayoutLoader() {}
+
+    /**
+     * Loads a layout from a file.
+     *
+     * @param file the file holding the layout's description.
+     * @return the layout.
+     * @throws IOException if the file can't be read.
+     * @throws IllegalArgumentException if the description isn't a valid layout.
+     */
+    public static Layout load(java.nio.file.Path file) throws IOException {
+        return parse(Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Builds a layout from its description. The standard board's text gives
+     * back Layout.standard() rather than a copy of it; anything else is
+     * built fresh, since games load a layout once and keep it.
+     *
+     * @param text the layout's description.
+     * @return the layout.
+     * @throws IllegalArgumentException if the description isn't a valid layout.
+     */
+    public static Layout parse(String text) {
+        return text.equals(STANDARD) ? Layout.standard() : build(text);
+    }
+
+    /**
+     * Parses a description into its cells and estates and builds the Layout.
+     * Layout.standard() builds the standard board here directly.
+     */
+    static Layout build(String text) {
+        Map<Character, String> names = new HashMap<>();
+        Map<Character, String> labels = new HashMap<>();
+        List<Character> letters = new ArrayList<>();
+        List<String> grid = new ArrayList<>();
+        String[] lines = text.split("\n");
+        for (int n = 0; n < lines.length; n++) {
+            String line = lines[n].strip();
+            if (line.isEmpty() || line.startsWith("# ")) {
+                continue;
+            }
+            if (line.startsWith("estate ")) {
+                String[] parts = line.split("\\s+");
+                if (parts.length < 3 || parts.length > 4 || parts[1].length() != 1
+                        || !Character.isUpperCase(parts[1].charAt(0))) {
+                    throw new IllegalArgumentException("Line " + (n + 1) + ": expected estate <Letter> <Name> [Label]");
+                }
+                labels.put(parts[1].charAt(0), parts.length == 4 ? parts[3] : parts[2].replace('_', '/'));
+                if (names.put(parts[1].charAt(0), parts[2]) != null) {
+                    throw new IllegalArgumentException("Line " + (n + 1) + ": estate " + parts[1] + " declared twice");
+                }
+                letters.add(parts[1].charAt(0));
+            } else {
+                if (!grid.isEmpty() && line.length() != grid.get(0).length()) {
+                    throw new IllegalArgumentException("Line " + (n + 1) + ": every row must be the same length");
+                }
+                grid.add(line);
+            }
+        }
+        if (grid.isEmpty() || letters.isEmpty()) {
+            throw new IllegalArgumentException("A layout needs at least one estate and one row");
+        }
+
+        int rows = grid.size(), cols = grid.get(0).length();
+        Estate[] estates = new Estate[letters.size()];
+        int cards = 0;
+        for (int e = 0; e < estates.length; e++) {
+            char letter = letters.get(e);
+            int top = rows, left = cols, bottom = -1, right = -1;
+            for (int row = 0; row < rows; row++) {
+                for (int col = 0; col < cols; col++) {
+                    if (grid.get(row).charAt(col) == letter) {
+                        top    = Math.min(top, row - 1);
+                        left   = Math.min(left, col - 1);
+                        bottom = Math.max(bottom, row + 1);
+                        right  = Math.max(right, col + 1);
+                    }
+                }
+            }
+            if (top == rows) {
+                throw new IllegalArgumentException("Estate " + letter + " has no cells");
+            }
+            if (top < 0 || left < 0 || bottom >= rows || right >= cols) {
+                throw new IllegalArgumentException("Estate " + letter + " needs walls around it");
+            }
+            checkShape(grid, letter, top, left, bottom, right);
+            estates[e] = estate(grid, names.get(letter), labels.get(letter), top, left, bottom, right);
+            if (estates[e].card().in(cards)) {
+                throw new IllegalArgumentException("Estate " + estates[e].name() + " declared twice");
+            }
+            cards |= estates[e].card().mask();
+        }
+        if (cards != Card.Type.ESTATE.mask()) {
+            throw new IllegalArgumentException("No estate for " + Card.names(Card.Type.ESTATE.mask() & ~cards)
+                    + "; the solution could be there");
+        }
+
+        Cell[][] cells = new Cell[rows][cols];
+        int[] starts = new int[SEATS];
+        Arrays.fill(starts, -1);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                char c = grid.get(row).charAt(col);
+                if (c == '.') {
+                    cells[row][col] = new Path(row, col);
+                } else if (c == '#') {
+                    cells[row][col] = new Wall(row, col);
+                } else if (c >= '1' && c < '1' + SEATS) {
+                    cells[row][col] = new Path(row, col);
+                    starts[c - '1'] = row * cols + col;
+                } else if (letters.contains(c)) {
+                    cells[row][col] = estates[letters.indexOf(c)];
+                } else if (letters.contains(Character.toUpperCase(c))) {
+                    char letter = Character.toUpperCase(c);
+                    if (!(row > 0 && grid.get(row - 1).charAt(col) == letter
+                            || row < rows - 1 && grid.get(row + 1).charAt(col) == letter
+                            || col > 0 && grid.get(row).charAt(col - 1) == letter
+                            || col < cols - 1 && grid.get(row).charAt(col + 1) == letter)) {
+                        throw new IllegalArgumentException("Entrance at " + row + "," + col + " isn't next to estate " + letter);
+                    }
+                    Estate estate = estates[letters.indexOf(letter)];
+                    Entrance entrance = new Entrance(row, col, estate);
+                    estate.addEntrance(entrance);
+                    cells[row][col] = entrance;
+                } else {
+                    throw new IllegalArgumentException("Unknown cell '" + c + "' at " + row + "," + col);
+                }
+            }
+        }
+        for (int seat = 0; seat < SEATS; seat++) {
+            if (starts[seat] < 0) {
+                throw new IllegalArgumentException("No starting cell for seat " + (seat + 1));
+            }
+        }
+        return new Layout(cells, estates, starts);
+    }
+
+    /**
+     * Checks that an estate (its walls given inclusively) is a rectangle of
+     * its letter in a ring of walls and entrances, with no entrance on a
+     * corner, where it would face two ways, and a path outside every entrance.
+     *
+     * @throws IllegalArgumentException if it isn't.
+     */
+    private static void checkShape(List<String> grid, char letter, int top, int left, int bottom, int right) {
+        char entrance = Character.toLowerCase(letter);
+        for (int row = top; row <= bottom; row++) {
+            for (int col = left; col <= right; col++) {
+                char c = grid.get(row).charAt(col);
+                boolean topOrBottom = row == top || row == bottom;
+                boolean leftOrRight = col == left || col == right;
+                if (!topOrBottom && !leftOrRight) {
+                    if (c != letter) {
+                        throw new IllegalArgumentException("Estate " + letter + " isn't a rectangle: '" + c
+                                + "' at " + row + "," + col);
+                    }
+                    continue;
+                }
+                if (c == '#') {
+                    continue;
+                }
+                if (c != entrance) {
+                    throw new IllegalArgumentException("Estate " + letter + "'s walls can only be '#' or '" + entrance
+                            + "', not '" + c + "' at " + row + "," + col);
+                }
+                if (topOrBottom && leftOrRight) {
+                    throw new IllegalArgumentException("Entrance at " + row + "," + col + " is on a corner of estate " + letter);
+                }
+                int outRow = row == top ? row - 1 : row == bottom ? row + 1 : row;
+                int outCol = col == left ? col - 1 : col == right ? col + 1 : col;
+                char out = outRow >= 0 && outRow < grid.size() && outCol >= 0 && outCol < grid.get(0).length()
+                        ? grid.get(outRow).charAt(outCol) : '#';
+                if (out != '.' && (out < '1' || out >= '1' + SEATS)) {
+                    throw new IllegalArgumentException("Entrance at " + row + "," + col + " doesn't lead onto a path");
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates an estate from the part of the grid inside its walls (given
+     * inclusively), drawing its picture and working out its exits.
+     *
+     * @throws IllegalArgumentException if the name isn't that of an estate card.
+     */
+    private static Estate estate(List<String> grid, String name, String label,
+                                 int top, int left, int bottom, int right) {
+        Card card = Card.parse(name);
+        if (card == null || card.type() != Card.Type.ESTATE) {
+            throw new IllegalArgumentException("Unknown estate " + name);
+        }
+        int cols = grid.get(0).length();
+        int[] exits = new int[Direction.values().length];
+        Arrays.fill(exits, -1);
+        String[] words = label.replace('_', ' ').split("/");
+        int innerWidth = (right - left - 1) * 3;
+        int playerRow = Math.min(words.length, bottom - top - 2) + 1;
+
+        String[] lines = new String[bottom - top + 1];
+        for (int row = top; row <= bottom; row++) {
+            StringBuilder line = new StringBuilder();
+            for (int col = left; col <= right; col++) {
+                if (row > top && row < bottom && col > left && col < right) {
+                    continue; // The inside is filled in below, all at once.
+                }
+                char c = grid.get(row).charAt(col);
+                if (!Character.isLowerCase(c)) {
+                    line.append(Board.WALLSTRING);
+                } else {
+                    Direction side = row == top ? Direction.UP : row == bottom ? Direction.DOWN
+                            : col == left ? Direction.LEFT : Direction.RIGHT;
+                    line.append(Board.ENTRANCESTRINGS.get(side));
+                    int exitRow = row + (side == Direction.UP ? -1 : side == Direction.DOWN ? 1 : 0);
+                    int exitCol = col + (side == Direction.LEFT ? -1 : side == Direction.RIGHT ? 1 : 0);
+                    if (exits[side.ordinal()] < 0 && exitRow >= 0 && exitRow < grid.size()
+                            && exitCol >= 0 && exitCol < cols) {
+                        exits[side.ordinal()] = exitRow * cols + exitCol;
+                    }
+                }
+                if (col == left && row > top && row < bottom) {
+                    int inner = row - top - 1;
+                    String text = inner < words.length && inner + 1 != playerRow ? words[inner] : "";
+                    text = text.length() > innerWidth ? text.substring(0, innerWidth) : text;
+                    int pad = (innerWidth - text.length() + 1) / 2;
+                    line.append(" ".repeat(pad)).append(text).append(" ".repeat(innerWidth - text.length() - pad));
+                }
+            }
+            lines[row - top] = line.toString();
+        }
+        return new Estate(name, top, left, exits, lines, playerRow, 3, innerWidth);
+    }
+}
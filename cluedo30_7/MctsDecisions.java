@@ -0,0 +1,866 @@
+package cluedo30_7;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static cluedo30_7.Board.Direction;
+
+/**
+ * A bot that decides where to move, whether to guess or attempt a solution
+ * and with which cards by Monte Carlo tree search over GameState snapshots.
+ * <p>
+ * Each decision is a search with a fixed wall-clock budget. A search over
+ * the possible answers repeats these steps until the budget runs out:
+ * <ul>
+ * <li>Deal the cards the player can't see at random, consistent with what
+ * its Deduction has worked out from every refutation so far.</li>
+ * <li>Pick an answer by UCB1, and if it is a move into an estate, pick what
+ * to guess there by UCB1 too, from that move's node of the tree.</li>
+ * <li>Play the game on from there with a quick heuristic policy for every
+ * seat.</li>
+ * <li>Score the result, and add it to the statistics of every answer picked.</li>
+ * </ul>
+ * The answer picked most often wins. Searches run on several threads at
+ * once, each with its own tree, whose statistics are added up at the end
+ * (root parallelism), so no locks are needed.
+ * <p>
+ * What each search finds out about the guesses made from an estate is kept
+ * in a TranspositionTable, keyed by the position's hash and the guess, and
+ * starts off the statistics of the same guesses in later searches. So once
+ * a move search has taken the player into an estate, the guess search that
+ * follows from there begins where the move search's tree left off.
+ * <p>
+ * Only the seats in its mask are played by the bot. Every other question,
+ * including how many players there are, goes to the provider it was given,
+ * so bots can sit at a table with people at the console or with other bots.
+ * Since the budget is in wall-clock time, games with it in them can't be
+ * replayed from a seed.
+ */
+public class MctsDecisions implements DecisionProvider {
+    /**
+     * How long each decision is searched for, unless told otherwise.
+     */
+    public static final long DEFAULT_BUDGET_NANOS = 50_000_000;
+
+    private static final int HORIZON = 200;         // Turns a playout runs for before it is scored.
+    private static final double EXPLORATION = 0.7;  // UCB1's constant, for rewards from 0 to 1.
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final char[] KEYS = {'w', 's', 'a', 'd'}; // [Direction ordinal]
+    private static final int GUESS = 1 << 16, SOLVE = 2 << 16; // Added to a card mask to make an action.
+    private static final int DEAL_ATTEMPTS = 8;     // Deals tried against the deduction before ignoring it.
+    private static final int PRIOR_VISITS = 256;    // Most playouts a guess's statistics start from.
+    private static final int TABLE_ENTRIES = 1 << 14;
+
+    private final DecisionProvider others;
+    private final int seats;
+    private final long budgetNanos;
+    private final int threads;
+    private final ExecutorService pool;
+    private final SplittableRandom random;
+    private final int[] chosen = new int[4];  // [seat] the suspect and weapon picked by the last guess search.
+    private final int[] shown = new int[4];   // [seat] the cards it has shown while refuting.
+    private final int[] movedOn = new int[4]; // [seat] the last turn it planned a move on.
+    private final Deduction[] deductions = new Deduction[4]; // [seat] made when first needed.
+    private final TranspositionTable table = new TranspositionTable(TABLE_ENTRIES);
+    private long searches;
+    private long playouts;
+
+    /**
+     * Constructs a bot searching on one thread for DEFAULT_BUDGET_NANOS per decision.
+     *
+     * @param others the provider answering for every seat the bot doesn't play.
+     * @param seats  a mask of the seats the bot plays, bit i for seat i.
+     * @param seed   the seed for its choices.
+     */
+    public MctsDecisions(DecisionProvider others, int seats, long seed) {
+        this(others, seats, DEFAULT_BUDGET_NANOS, 1, seed);
+    }
+
+    /**
+     * Constructs a bot.
+     *
+     * @param others      the provider answering for every seat the bot doesn't play.
+     * @param seats       a mask of the seats the bot plays, bit i for seat i.
+     * @param budgetNanos how long to search for each decision.
+     * @param threads     how many threads to search on.
+     * @param seed        the seed for its choices.
+     * @throws IllegalArgumentException if the budget or number of threads isn't positive.
+     */
+    public MctsDecisions(DecisionProvider others, int seats, long budgetNanos, int threads, long seed) {
+        if (budgetNanos <= 0 || threads < 1) {
+            throw new IllegalArgumentException("The budget and number of threads must be positive");
+        }
+        this.others = others;
+        this.seats = seats;
+        this.budgetNanos = budgetNanos;
+        this.threads = threads;
+        this.random = new SplittableRandom(seed);
+        this.pool = threads == 1 ? null : Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "mcts-search");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Getter method for how many decisions have been searched.
+     */
+    public long searches() {
+        return searches;
+    }
+
+    /**
+     * Getter method for how many games have been played out by all the searches.
+     */
+    public long playouts() {
+        return playouts;
+    }
+
+    private boolean plays(Player player) {
+        return (seats & (1 << player.id())) != 0;
+    }
+
+    /**
+     * Getter method for what a seat the bot plays has deduced, made from its
+     * hand the first time it's asked for. Refutations are only seen during
+     * the game, so none are missed.
+     */
+    private Deduction deduction(Game game, int seat) {
+        if (deductions[seat] == null) {
+            int[] sizes = new int[game.numPlayers()];
+            for (int p = 0; p < sizes.length; p++) {
+                sizes[p] = Integer.bitCount(game.player(p).hand());
+            }
+            deductions[seat] = new Deduction(sizes, seat, game.player(seat).hand());
+        }
+        return deductions[seat];
+    }
+
+    @Override
+    public int numberOfPlayers() {
+        return others.numberOfPlayers();
+    }
+
+    /**
+     * Bots don't need to be handed the tablet; everyone else is waited for.
+     */
+    @Override
+    public void handOver(Player player) {
+        if (!plays(player)) {
+            others.handOver(player);
+        }
+    }
+
+    /**
+     * Player only asks for whole paths, see path(); a single direction on its
+     * own means stopping.
+     */
+    @Override
+    public char direction(Player player, int movesLeft, int attempt) {
+        return plays(player) ? 'p' : others.direction(player, movesLeft, attempt);
+    }
+
+    /**
+     * Searches for where to move, once a turn unless the move ends in an
+     * estate the player then decides to leave. The path to get there is the
+     * shortest one that doesn't pass through an estate, so Player takes it as one move.
+     */
+    @Override
+    public String path(Player player, int movesLeft, int attempt) {
+        if (!plays(player)) {
+            return others.path(player, movesLeft, attempt);
+        }
+        Game game = player.game();
+        Board board = game.board();
+        int seat = player.id();
+        if (attempt > 0 || (movedOn[seat] == game.turns() && board.kind(player.location()) != Board.ESTATE)) {
+            return "p";
+        }
+        movedOn[seat] = game.turns();
+
+        Paths paths = new Paths(board, player.location(), movesLeft);
+        int numEstates = board.estates().length;
+        List<Integer> actions = new ArrayList<>();
+        for (int e = 0; e < numEstates; e++) {
+            if (paths.reachesEstate(e)) {
+                actions.add(board.layout().home(e));
+                continue;
+            }
+            // Otherwise get as close to it as this roll allows.
+            int best = -1;
+            for (int i = 0; i < paths.numCells(); i++) {
+                if (paths.reaches(i) && (best < 0 || board.distances().distance(e, i) < board.distances().distance(e, best))) {
+                    best = i;
+                }
+            }
+            if (best >= 0 && !actions.contains(best)) {
+                actions.add(best);
+            }
+        }
+        actions.add(-1); // Staying put, last so that it loses ties.
+        int[] moves = actions.stream().mapToInt(Integer::intValue).toArray();
+        int to = moves.length == 1 ? -1
+                : moves[search(GameState.of(game, seat, movesLeft, random.nextLong()), moves, false, deduction(game, seat))];
+        if (to < 0) {
+            return "p";
+        }
+        return board.kind(to) == Board.ESTATE ? paths.toEstate(board.estateId(to)) : paths.to(to);
+    }
+
+    /**
+     * Searches whether to pass, guess or attempt a solution, and with which
+     * suspect and weapon, which suspect() and weapon() then give. Only cards
+     * that might be in the solution are considered, and once the solution is
+     * deduced and the player is in its estate it is given straight away.
+     */
+    @Override
+    public char guessOrSolve(Player player, int movesLeft) {
+        if (!plays(player)) {
+            return others.guessOrSolve(player, movesLeft);
+        }
+        Game game = player.game();
+        Deduction deduction = deduction(game, player.id());
+        Card here = game.board().estateAt(player.location()).card();
+        if (player.canSolve() && deduction.solved() && here.in(deduction.solution())) {
+            chosen[player.id()] = deduction.solution();
+            return 's';
+        }
+        int[] choices = guesses(deduction.candidates(), player.canSolve());
+        GameState root = GameState.of(game, player.id(), movesLeft, random.nextLong());
+        int action = choices[search(root, choices, true, deduction)];
+        chosen[player.id()] = action & Card.ALL;
+        return action == 0 ? 'c' : (action & SOLVE) != 0 ? 's' : 'g';
+    }
+
+    /**
+     * Lists the guess actions open to a player in an estate: guessing or, if
+     * they still can, solving with each suspect and weapon that might be in
+     * the solution, then passing.
+     *
+     * @param candidates the cards that might be in the solution.
+     * @param canSolve   whether the player still has their solve attempt.
+     */
+    private static int[] guesses(int candidates, boolean canSolve) {
+        int suspects = Integer.bitCount(candidates & Card.Type.SUSPECT.mask());
+        int weapons = Integer.bitCount(candidates & Card.Type.WEAPON.mask());
+        int[] actions = new int[suspects * weapons * (canSolve ? 2 : 1) + 1];
+        int n = 0;
+        for (int s = candidates & Card.Type.SUSPECT.mask(); s != 0; s &= s - 1) {
+            for (int w = candidates & Card.Type.WEAPON.mask(); w != 0; w &= w - 1) {
+                int cards = Integer.lowestOneBit(s) | Integer.lowestOneBit(w);
+                actions[n++] = GUESS | cards;
+                if (canSolve) {
+                    actions[n++] = SOLVE | cards;
+                }
+            }
+        }
+        actions[n] = 0; // Passing, last so that it loses ties.
+        return actions;
+    }
+
+    /**
+     * Returns the key the guesses from a position are kept under in the
+     * table: its hash without the moves left, which only matter to passing,
+     * mixed with what might be in the solution.
+     */
+    private static long guessKey(GameState s, int candidates) {
+        return s.hash() ^ Zobrist.movesLeft(s.movesLeft()) ^ mix(candidates);
+    }
+
+    /**
+     * Scrambles a number into 64 well spread bits (SplitMix64's finalizer).
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public Card suspect(Player player) {
+        int cards = chosen[player.id()] & Card.Type.SUSPECT.mask();
+        return plays(player) && cards != 0 ? Card.first(cards) : others.suspect(player);
+    }
+
+    @Override
+    public Card weapon(Player player) {
+        int cards = chosen[player.id()] & Card.Type.WEAPON.mask();
+        return plays(player) && cards != 0 ? Card.first(cards) : others.weapon(player);
+    }
+
+    /**
+     * Player names the estate it is standing in itself, so this only answers
+     * for other seats, or with the estate the bot is in.
+     */
+    @Override
+    public Card estate(Player player) {
+        Board board = player.game().board();
+        if (!plays(player) || board.kind(player.location()) != Board.ESTATE) {
+            return others.estate(player);
+        }
+        return board.estateAt(player.location()).card();
+    }
+
+    /**
+     * Shows a card it has shown before if it can, so as to give away as little as possible.
+     */
+    @Override
+    public Card alibi(Player player, int matching) {
+        if (!plays(player)) {
+            return others.alibi(player, matching);
+        }
+        int again = matching & shown[player.id()];
+        Card card = again != 0 ? Card.first(again)
+                : Card.nth(matching, random.nextInt(Integer.bitCount(matching)));
+        shown[player.id()] |= card.mask();
+        return card;
+    }
+
+    /**
+     * Passes the refutation on, and adds it to what each seat the bot plays has deduced.
+     */
+    @Override
+    public void refuted(Player guesser, int guess, int refuters, Card alibi) {
+        others.refuted(guesser, guess, refuters, alibi);
+        Game game = guesser.game();
+        for (int seat = 0; seat < game.numPlayers(); seat++) {
+            if ((seats & (1 << seat)) != 0) {
+                deduction(game, seat).observe(guesser.id(), guess, refuters, alibi);
+            }
+        }
+    }
+
+    @Override
+    public boolean finished() {
+        return others.finished();
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+        others.close();
+    }
+
+    /**
+     * Searches for the best of the given actions for the seat whose turn it is.
+     *
+     * @param root      the position to search from.
+     * @param actions   the packed indices to move to (-1 to stay put), or the guess actions.
+     * @param guessing  whether the actions are guess actions rather than moves.
+     * @param deduction what the seat whose turn it is has deduced, for dealing the cards it can't see.
+     * @return the index in actions of the one played out most.
+     */
+    private int search(GameState root, int[] actions, boolean guessing, Deduction deduction) {
+        long deadline = System.nanoTime() + budgetNanos;
+        int[] possible = new int[root.numPlayers() + 1];
+        int[] known = new int[possible.length];
+        for (int o = 0; o < possible.length; o++) {
+            possible[o] = deduction.possible(o);
+            known[o] = deduction.known(o);
+        }
+        table.newGeneration();
+        Node tree;
+        if (pool == null) {
+            tree = new Search(root, actions, guessing, possible, known, table, deadline, random.split()).call();
+        } else {
+            List<Future<Node>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(new Search(root, actions, guessing, possible, known, table,
+                        deadline, random.split())));
+            }
+            tree = null;
+            try {
+                for (Future<Node> f : futures) {
+                    tree = tree == null ? f.get() : tree.add(f.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("A search failed", e.getCause());
+            }
+            if (tree == null) {
+                return actions.length - 1;
+            }
+        }
+        tree.store(table);
+        int best = 0;
+        for (int a = 0; a < actions.length; a++) {
+            playouts += (long) (tree.visits[a] - tree.prior[a]);
+            if (tree.visits[a] > tree.visits[best]
+                    || tree.visits[a] == tree.visits[best] && tree.rewards[a] > tree.rewards[best]) {
+                best = a;
+            }
+        }
+        searches++;
+        return best;
+    }
+
+    /**
+     * A decision in the search tree: how often each of its actions has been
+     * played out and what they scored, and for each move into an estate, the
+     * node deciding what to guess there. Guess nodes start from what the
+     * table has kept about their guesses.
+     */
+    private static final class Node {
+        private final int[] actions;
+        private final long key;         // The guesses' key in the table, or 0 for a node of moves.
+        private final double[] visits;  // [action] playouts, with the prior ones.
+        private final double[] rewards; // [action] their total score.
+        private final double[] prior;   // [action] the playouts it started with, from the table.
+        private final double[] priorRewards;
+        private final Node[] children;  // [action] made when first played, null for leaves.
+        private double total;
+
+        /**
+         * Constructs a node of moves, which nothing is kept about.
+         */
+        Node(int[] actions) {
+            this.actions = actions;
+            this.key = 0;
+            this.visits = new double[actions.length];
+            this.rewards = new double[actions.length];
+            this.prior = new double[actions.length];
+            this.priorRewards = new double[actions.length];
+            this.children = new Node[actions.length];
+        }
+
+        /**
+         * Constructs a node of guesses, starting each guess and solution
+         * attempt off from what the table has kept about it. Passing isn't
+         * kept, since what it leads to depends on the moves left.
+         */
+        Node(int[] actions, long key, TranspositionTable table) {
+            this.actions = actions;
+            this.key = key;
+            this.visits = new double[actions.length];
+            this.rewards = new double[actions.length];
+            this.prior = new double[actions.length];
+            this.priorRewards = new double[actions.length];
+            this.children = null;
+            for (int a = 0; a < actions.length; a++) {
+                long entry = actions[a] == 0 ? TranspositionTable.MISS : table.probe(key ^ mix(actions[a]));
+                if (entry != TranspositionTable.MISS) {
+                    prior[a] = visits[a] = Math.min(TranspositionTable.depth(entry), PRIOR_VISITS);
+                    priorRewards[a] = rewards[a] = prior[a] * TranspositionTable.value(entry);
+                    total += prior[a];
+                }
+            }
+        }
+
+        /**
+         * Picks the next action to try by UCB1, every action once to begin with.
+         */
+        int select() {
+            double log = Math.log(total);
+            int best = 0;
+            double bestScore = -1;
+            for (int a = 0; a < actions.length; a++) {
+                if (visits[a] == 0) {
+                    return a;
+                }
+                double score = rewards[a] / visits[a] + EXPLORATION * Math.sqrt(log / visits[a]);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = a;
+                }
+            }
+            return best;
+        }
+
+        void update(int a, double reward) {
+            visits[a]++;
+            rewards[a] += reward;
+            total++;
+        }
+
+        /**
+         * Adds another thread's playouts of the same decision to this node's,
+         * counting the playouts both started from only once.
+         *
+         * @return this node.
+         */
+        Node add(Node other) {
+            for (int a = 0; a < actions.length; a++) {
+                double fresh = other.visits[a] - other.prior[a];
+                visits[a] += fresh;
+                rewards[a] += other.rewards[a] - other.priorRewards[a];
+                total += fresh;
+                if (children != null && other.children[a] != null) {
+                    children[a] = children[a] == null ? other.children[a] : children[a].add(other.children[a]);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Keeps what was found out about every guess in the tree in the table.
+         */
+        void store(TranspositionTable table) {
+            for (int a = 0; a < actions.length; a++) {
+                if (children != null && children[a] != null) {
+                    children[a].store(table);
+                } else if (children == null && actions[a] != 0 && visits[a] > 0) {
+                    table.store(key ^ mix(actions[a]), (int) visits[a], (float) (rewards[a] / visits[a]));
+                }
+            }
+        }
+    }
+
+    /**
+     * One thread's share of a search, with its own tree, random number
+     * generator and scratch space, so threads share nothing but the root and
+     * the table, which is only read until the search is over.
+     */
+    private static final class Search implements Callable<Node> {
+        private final GameState root;
+        private final int[] actions;
+        private final boolean guessing;
+        private final int[] possible; // [owner] from the Deduction, the solution last.
+        private final int[] known;
+        private final TranspositionTable table;
+        private final long deadline;
+        private final SplittableRandom random;
+        private final Layout layout;
+        private final DistanceField distances;
+        private final Reachable reachable;
+        private final int[] estateCards; // [estate] the mask of its card.
+        private final int[] deck = new int[Card.values().length];
+
+        Search(GameState root, int[] actions, boolean guessing, int[] possible, int[] known,
+               TranspositionTable table, long deadline, SplittableRandom random) {
+            this.root = root;
+            this.actions = actions;
+            this.guessing = guessing;
+            this.possible = possible;
+            this.known = known;
+            this.table = table;
+            this.deadline = deadline;
+            this.random = random;
+            this.layout = root.layout();
+            this.distances = layout.distances();
+            this.reachable = new Reachable(layout);
+            this.estateCards = new int[layout.estates().length];
+            for (int e = 0; e < estateCards.length; e++) {
+                estateCards[e] = layout.estates()[e].card().mask();
+            }
+        }
+
+        @Override
+        public Node call() {
+            int seat = root.seat();
+            int candidates = possible[root.numPlayers()];
+            Node tree = guessing ? new Node(actions, guessKey(root, candidates), table) : new Node(actions);
+            for (long playouts = 0; playouts < actions.length || System.nanoTime() < deadline; playouts++) {
+                int a = tree.select();
+                GameState s = deal(root, seat);
+                double reward;
+                if (guessing || actions[a] < 0 || layout.estateId(actions[a]) < 0) {
+                    reward = playOut(apply(s, actions[a], guessing), seat);
+                } else {
+                    Node guesses = tree.children[a];
+                    if (guesses == null) {
+                        GameState there = root.applyMove(actions[a]);
+                        guesses = tree.children[a] = new Node(guesses(candidates, there.canSolve(seat)),
+                                guessKey(there, candidates), table);
+                    }
+                    int g = guesses.select();
+                    reward = playOut(apply(s.applyMove(actions[a]), guesses.actions[g], true), seat);
+                    guesses.update(g, reward);
+                }
+                tree.update(a, reward);
+            }
+            return tree;
+        }
+        /**
+         * Fills in what the seat can't see: a solution and the other seats'
+         * hands, dealt at random but keeping to what it has deduced, and for
+         * each other seat as many cards seen as they really have, from outside
+         * their hand and the solution. The deduction's "at least one of" facts
+         * aren't checked, only which cards each owner might and does hold.
+         */
+        private GameState deal(GameState s, int seat) {
+            int n = s.numPlayers();
+            int[] hands = new int[n];
+            int[] seen = new int[n];
+            int solution;
+            for (int attempt = 0; ; attempt++) {
+                solution = pick(possible[n] & Card.Type.SUSPECT.mask())
+                        | pick(possible[n] & Card.Type.WEAPON.mask())
+                        | pick(possible[n] & Card.Type.ESTATE.mask());
+                if (dealHands(s, seat, solution, hands, attempt < DEAL_ATTEMPTS)) {
+                    break;
+                }
+            }
+            for (int p = 0; p < n; p++) {
+                if (p == seat) {
+                    // Cards deduced to be outside the solution count as seen.
+                    seen[p] = s.seen(p) | Card.ALL & ~(possible[n] | s.hand(p));
+                    continue;
+                }
+                int candidates = Card.ALL & ~(hands[p] | solution);
+                for (int c = Integer.bitCount(s.seen(p)); c > 0 && candidates != 0; c--) {
+                    int card = pick(candidates);
+                    seen[p] |= card;
+                    candidates &= ~card;
+                }
+            }
+            return s.withCards(solution, hands, seen);
+        }
+
+        /**
+         * Deals every card outside the solution and the known cards to the
+         * other seats, in the numbers they really hold.
+         *
+         * @param strict whether each card may only go to a seat that might hold it.
+         * @return false if a card had nowhere left to go, which can only happen when strict.
+         */
+        private boolean dealHands(GameState s, int seat, int solution, int[] hands, boolean strict) {
+            int rest = Card.ALL & ~solution;
+            for (int p = 0; p < hands.length; p++) {
+                hands[p] = p == seat ? s.hand(p) : known[p];
+                rest &= ~hands[p];
+            }
+            int count = 0;
+            for (int m = rest; m != 0; m &= m - 1) {
+                deck[count++] = Integer.numberOfTrailingZeros(m);
+            }
+            for (int i = count - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = deck[i];
+                deck[i] = deck[j];
+                deck[j] = tmp;
+            }
+            for (int i = 0; i < count; i++) {
+                int card = 1 << deck[i];
+                int to = -1;
+                for (int p = 0, options = 0; p < hands.length; p++) {
+                    if (p != seat && Integer.bitCount(hands[p]) < Integer.bitCount(s.hand(p))
+                            && (!strict || (possible[p] & card) != 0)
+                            && random.nextInt(++options) == 0) {
+                        to = p;
+                    }
+                }
+                if (to < 0) {
+                    return false;
+                }
+                hands[to] |= card;
+            }
+            return true;
+        }
+
+        /**
+         * Plays one of the searched actions for the seat whose turn it is,
+         * finishing their turn with the heuristic policy.
+         *
+         * @param guessing whether the action is a guess action rather than a move.
+         */
+        private GameState apply(GameState s, int action, boolean guessing) {
+            if (!guessing) {
+                return action < 0 ? s.applyPass() : finishTurn(s.applyMove(action));
+            }
+            if (action == 0) {
+                int estate = s.estateOf(s.seat());
+                s = move(s);
+                return s.estateOf(s.seat()) == estate ? s.applyPass() : finishTurn(s);
+            }
+            int guess = action & Card.ALL;
+            return (action & SOLVE) != 0 ? s.applySolve(guess) : s.applyGuess(guess);
+        }
+
+        /**
+         * Plays the game on with the heuristic policy for every seat, until it
+         * ends or HORIZON turns have gone by, and scores it for the given seat:
+         * 1 for winning, 0 for a wrong solution attempt, and otherwise up to a
+         * half for how many of the cards outside the solution they know by
+         * the end. The other seats play better in a playout than most real
+         * players do, so they usually win it, and without that half every
+         * answer would score the same.
+         */
+        private double playOut(GameState s, int seat) {
+            for (int t = 0; t < HORIZON && !s.over(); t++) {
+                s = finishTurn(move(s.applyRoll()));
+            }
+            if (s.winner() == seat) {
+                return 1;
+            }
+            if (!s.canSolve(seat)) {
+                return 0;
+            }
+            return 0.5 * Integer.bitCount(s.hand(seat) | s.seen(seat)) / (Card.values().length - 3);
+        }
+
+        /**
+         * Moves the seat whose turn it is into an estate whose card they
+         * haven't seen if they can reach one, or as close to one as they can.
+         */
+        private GameState move(GameState s) {
+            int seat = s.seat();
+            int here = s.estateOf(seat);
+            int unseen = Card.ALL & ~(s.hand(seat) | s.seen(seat));
+            int wanted = 0;
+            for (int e = 0; e < estateCards.length; e++) {
+                if ((estateCards[e] & unseen) != 0 && e != here) {
+                    wanted |= 1 << e;
+                }
+            }
+            if (wanted == 0) {
+                wanted = ((1 << estateCards.length) - 1) & ~(here < 0 ? 0 : 1 << here);
+            }
+            s.reachable(reachable);
+            int targets = reachable.estates() & wanted;
+            if (targets != 0) {
+                for (int skip = random.nextInt(Integer.bitCount(targets)); skip > 0; skip--) {
+                    targets &= targets - 1;
+                }
+                return s.applyMove(layout.home(Integer.numberOfTrailingZeros(targets)));
+            }
+            int best = -1, bestDistance = DistanceField.UNREACHABLE;
+            long[] cells = reachable.cells();
+            for (int w = 0; w < cells.length; w++) {
+                for (long bits = cells[w]; bits != 0; bits &= bits - 1) {
+                    int i = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    for (int m = wanted; m != 0; m &= m - 1) {
+                        int d = distances.distance(Integer.numberOfTrailingZeros(m), i);
+                        if (d < bestDistance) {
+                            bestDistance = d;
+                            best = i;
+                        }
+                    }
+                }
+            }
+            return best < 0 ? s : s.applyMove(best);
+        }
+
+        /**
+         * Ends the turn of the seat whose turn it is: from an estate, a
+         * solution attempt once only the solution is left unseen and it is
+         * in this estate, otherwise a guess with unseen cards.
+         */
+        private GameState finishTurn(GameState s) {
+            int seat = s.seat();
+            int estate = s.estateOf(seat);
+            if (estate < 0) {
+                return s.applyPass();
+            }
+            int unseen = Card.ALL & ~(s.hand(seat) | s.seen(seat));
+            if (s.canSolve(seat) && Integer.bitCount(unseen) == 3 && (unseen & estateCards[estate]) != 0) {
+                return s.applySolve(unseen);
+            }
+            return s.applyGuess(pick(unseen & Card.Type.SUSPECT.mask()) | pick(unseen & Card.Type.WEAPON.mask()));
+        }
+
+        /**
+         * Returns one card of a set at random, as a mask.
+         */
+        private int pick(int cards) {
+            return cards == 0 ? 0 : Card.nth(cards, random.nextInt(Integer.bitCount(cards))).mask();
+        }
+    }
+
+    /**
+     * The shortest paths from a player's location to every cell and estate
+     * within their moves, found by a breadth first search over the live
+     * board, never passing through an estate or onto another player.
+     */
+    private static final class Paths {
+        private final int start;
+        private final int numCells;
+        private final int[] from;        // [cell] the cell stepped from, -1 for the start, -2 if not reached.
+        private final char[] key;        // [cell] the key pressed to step onto it.
+        private final int[] estateFrom;  // [estate] the same for stepping in through an entrance.
+        private final char[] estateKey;
+
+        Paths(Board board, int start, int movesLeft) {
+            this.start = start;
+            this.numCells = board.rows() * board.cols();
+            this.from = new int[numCells];
+            this.key = new char[numCells];
+            this.estateFrom = new int[board.estates().length];
+            this.estateKey = new char[estateFrom.length];
+            Arrays.fill(from, -2);
+            Arrays.fill(estateFrom, -2);
+            int[] distance = new int[numCells];
+            int[] queue = new int[numCells];
+            int head = 0, tail = 0;
+            int startEstate = board.kind(start) == Board.ESTATE ? board.estateId(start) : -1;
+            if (startEstate >= 0) {
+                for (Direction d : DIRECTIONS) {
+                    int exit = board.estates()[startEstate].exit(d);
+                    if (exit >= 0 && board.isFree(exit) && from[exit] == -2 && movesLeft > 0) {
+                        from[exit] = -1;
+                        key[exit] = KEYS[d.ordinal()];
+                        distance[exit] = 1;
+                        queue[tail++] = exit;
+                    }
+                }
+            } else {
+                from[start] = -1;
+                queue[tail++] = start;
+            }
+            int cols = board.cols();
+            while (head < tail) {
+                int cell = queue[head++];
+                if (distance[cell] == movesLeft) {
+                    continue;
+                }
+                int row = cell / cols, col = cell % cols;
+                for (Direction d : DIRECTIONS) {
+                    int next = switch (d) {
+                        case UP    -> row > 0 ? cell - cols : -1;
+                        case DOWN  -> row < board.rows() - 1 ? cell + cols : -1;
+                        case LEFT  -> col > 0 ? cell - 1 : -1;
+                        case RIGHT -> col < cols - 1 ? cell + 1 : -1;
+                    };
+                    if (next < 0) {
+                        continue;
+                    }
+                    if (board.kind(next) == Board.PATH && board.isFree(next) && from[next] == -2) {
+                        from[next] = cell;
+                        key[next] = KEYS[d.ordinal()];
+                        distance[next] = distance[cell] + 1;
+                        queue[tail++] = next;
+                    } else if (board.kind(next) == Board.ENTRANCE) {
+                        int e = board.estateId(next);
+                        if (e != startEstate && estateFrom[e] == -2) {
+                            estateFrom[e] = cell;
+                            estateKey[e] = KEYS[d.ordinal()];
+                        }
+                    }
+                }
+            }
+            if (startEstate < 0) {
+                from[start] = -2; // Where the player already is isn't somewhere to go.
+            }
+        }
+
+        int numCells() { return numCells; }
+        boolean reaches(int cell) { return from[cell] != -2; }
+        boolean reachesEstate(int estate) { return estateFrom[estate] != -2; }
+
+        /**
+         * Returns the keys to press to walk to a reached cell.
+         */
+        String to(int cell) {
+            StringBuilder path = new StringBuilder();
+            for (int c = cell; c != start && c >= 0; c = from[c]) {
+                path.append(key[c]);
+            }
+            return path.reverse().toString();
+        }
+
+        /**
+         * Returns the keys to press to walk into a reached estate.
+         */
+        String toEstate(int estate) {
+            return to(estateFrom[estate]) + estateKey[estate];
+        }
+    }
+}
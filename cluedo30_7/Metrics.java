@@ -0,0 +1,320 @@
+package cluedo30_7;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The Metrics class records where the time goes in a game: how many times each
+ * Phase happened, a latency histogram for each, and a count of the steps moved.
+ * Reading the clock costs more than most phases of a bot game, so only one
+ * turn in every sampleEvery is timed, every phase in it included; the counts
+ * are exact and the histograms are a fair sample. A timed turn also pays for
+ * reading the clock around each of its phases, so TURN times read a little
+ * high for bots, whose phases take well under a microsecond.
+ * <p>
+ * Games record into the Metrics of the thread playing them, local(), without
+ * any locking. About once a second, at the start of a turn, a thread adds
+ * what it has recorded to global() and starts over, so games being played
+ * show up in global() as they go, and a thread playing many short games
+ * takes global()'s lock once a second rather than once a game. global() is
+ * registered with JMX and can be dumped periodically; only it is ever read
+ * from another thread, so only its methods are synchronized.
+ */
+public class Metrics implements MetricsMXBean {
+    /**
+     * The parts of a game that are timed.
+     */
+    public enum Phase {
+        /** A whole turn, from the roll to the last move or guess. */
+        TURN,
+        /** One move command, from asking for it to taking every step of it. */
+        MOVE,
+        /** A guess, from choosing its cards to hearing whether it was refuted. */
+        GUESS,
+        /** Asking every other player to refute a guess. */
+        REFUTE,
+        /** A solution attempt, from choosing its cards to checking it. */
+        SOLVE,
+        /** Waiting for the DecisionProvider to answer a question. */
+        PROMPT
+    }
+
+    /**
+     * How many turns there are for every one timed, unless told otherwise.
+     */
+    public static final int DEFAULT_SAMPLE_EVERY = 16;
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final long FLUSH_NANOS = 1_000_000_000L; // How often local() Metrics are added to global().
+    private static final Metrics GLOBAL = register(new Metrics());
+    private static final ScheduledExecutorService DUMPS = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "metrics-dump");
+        t.setDaemon(true);
+        return t;
+    });
+    private static final ThreadLocal<Metrics> LOCAL =
+            ThreadLocal.withInitial(() -> new Metrics(DEFAULT_SAMPLE_EVERY, true));
+
+    private final Histogram[] latencies = new Histogram[PHASES.length];
+    private final long[] counts = new long[PHASES.length];
+    private final int sampleMask;
+    private final boolean flushes;  // Whether it adds itself to global() every FLUSH_NANOS.
+    private int turns;
+    private boolean timing;
+    private long games;
+    private long moves;
+    private long since = System.nanoTime();
+    private long flushed = since;
+
+    /**
+     * Constructs an empty Metrics timing one turn in every DEFAULT_SAMPLE_EVERY.
+     */
+    public Metrics() {
+        this(DEFAULT_SAMPLE_EVERY);
+    }
+
+    /**
+     * Constructs an empty Metrics timing one turn in every sampleEvery.
+     *
+     * @param sampleEvery a power of two; 1 times every turn.
+     * @throws IllegalArgumentException if sampleEvery isn't a power of two.
+     */
+    public Metrics(int sampleEvery) {
+        this(sampleEvery, false);
+    }
+
+    private Metrics(int sampleEvery, boolean flushes) {
+        if (sampleEvery < 1 || Integer.bitCount(sampleEvery) != 1) {
+            throw new IllegalArgumentException("sampleEvery must be a power of two, was " + sampleEvery);
+        }
+        this.sampleMask = sampleEvery - 1;
+        this.flushes = flushes;
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new Histogram();
+        }
+    }
+
+    /**
+     * Getter method for the Metrics every thread's games are added to.
+     */
+    public static Metrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Getter method for the Metrics the games on the calling thread record
+     * into, added to global() about once a second and by flush().
+     */
+    public static Metrics local() {
+        return LOCAL.get();
+    }
+
+    /**
+     * Registers the given metrics with the platform's JMX server. Metrics are
+     * only there to be looked at, so a JVM that won't allow it still plays.
+     */
+    private static Metrics register(Metrics metrics) {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(metrics, new ObjectName("cluedo30_7:type=Metrics"));
+        } catch (JMException | SecurityException e) {
+            // Not being able to watch a game is no reason not to play it.
+        }
+        return metrics;
+    }
+
+    /**
+     * Starts a new turn, deciding whether its phases will be timed. A local()
+     * Metrics that hasn't been added to global() for a second is added first.
+     */
+    public void beginTurn() {
+        timing = (++turns & sampleMask) == 0;
+        if (flushes && System.nanoTime() - flushed >= FLUSH_NANOS) {
+            flush();
+        }
+    }
+
+    /**
+     * Adds everything recorded so far to global() and starts over from nothing.
+     * Threads call it on their local() Metrics when they stop playing games.
+     */
+    public void flush() {
+        GLOBAL.add(this);
+        clear();
+        flushed = System.nanoTime();
+    }
+
+    /**
+     * Starts a phase, to be passed to record() when it is done.
+     *
+     * @return the current time in nanoseconds if this turn is being timed, otherwise 0.
+     */
+    public long start() {
+        return timing ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Counts a phase, and records how long it took if it was being timed.
+     *
+     * @param phase what happened.
+     * @param start the value returned by start() when it began.
+     */
+    public void record(Phase phase, long start) {
+        counts[phase.ordinal()]++;
+        if (start != 0) {
+            latencies[phase.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Counts steps taken by a player.
+     *
+     * @param steps how many cells the player moved.
+     */
+    public void moved(int steps) {
+        moves += steps;
+    }
+
+    /**
+     * Counts a game that has ended.
+     */
+    public void gameOver() {
+        games++;
+    }
+
+    /**
+     * Getter method for the histogram of one phase's sampled times. Only safe
+     * to read from the thread recording into it.
+     */
+    public Histogram latency(Phase phase) {
+        return latencies[phase.ordinal()];
+    }
+
+    /**
+     * Getter method for how many times a phase happened. Only safe to read
+     * from the thread recording into it.
+     */
+    public long count(Phase phase) {
+        return counts[phase.ordinal()];
+    }
+
+    /**
+     * Adds other metrics to these ones.
+     *
+     * @param other metrics only being recorded into by the calling thread.
+     */
+    public synchronized void add(Metrics other) {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i].add(other.latencies[i]);
+            counts[i] += other.counts[i];
+        }
+        moves += other.moves;
+        games += other.games;
+    }
+
+    @Override
+    public synchronized void reset() {
+        clear();
+        since = System.nanoTime();
+    }
+
+    private void clear() {
+        for (Histogram h : latencies) {
+            h.clear();
+        }
+        java.util.Arrays.fill(counts, 0);
+        games = moves = 0;
+    }
+
+    @Override
+    public synchronized long getGames() { return games; }
+
+    @Override
+    public synchronized long getTurns() { return count(Phase.TURN); }
+
+    @Override
+    public synchronized long getMoves() { return moves; }
+
+    @Override
+    public synchronized double getMovesPerSecond() {
+        return moves / Math.max(1e-9, (System.nanoTime() - since) / 1e9);
+    }
+
+    @Override
+    public synchronized Map<String, Long> getPhaseCounts() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Phase p : PHASES) {
+            values.put(p.name(), count(p));
+        }
+        return values;
+    }
+
+    @Override
+    public synchronized Map<String, Double> getLatencyMeanNanos() {
+        Map<String, Double> means = new LinkedHashMap<>();
+        for (Phase p : PHASES) {
+            means.put(p.name(), latency(p).mean());
+        }
+        return means;
+    }
+
+    @Override
+    public synchronized Map<String, Long> getLatencyP50Nanos() {
+        return byPhase(h -> h.percentile(0.5));
+    }
+
+    @Override
+    public synchronized Map<String, Long> getLatencyP99Nanos() {
+        return byPhase(h -> h.percentile(0.99));
+    }
+
+    @Override
+    public synchronized Map<String, Long> getLatencyMaxNanos() {
+        return byPhase(h -> h.max());
+    }
+
+    private Map<String, Long> byPhase(ToDoubleFunction<Histogram> value) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Phase p : PHASES) {
+            values.put(p.name(), (long) value.applyAsDouble(latency(p)));
+        }
+        return values;
+    }
+
+    @Override
+    public synchronized String snapshot() {
+        double seconds = (System.nanoTime() - since) / 1e9;
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Metrics after %.1f s: %d games, %d turns, %d moves (%.0f moves/s)\n",
+                seconds, games, getTurns(), moves, getMovesPerSecond()));
+        report.append(String.format("%-8s %12s %12s %12s %12s %12s\n", "phase", "count", "mean us", "p50 us", "p99 us", "max us"));
+        for (Phase p : PHASES) {
+            Histogram h = latency(p);
+            report.append(String.format("%-8s %12d %12.2f %12.2f %12.2f %12.2f\n", p.name().toLowerCase(),
+                    count(p), h.mean() / 1e3, h.percentile(0.5) / 1e3, h.percentile(0.99) / 1e3, h.max() / 1e3));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Prints snapshot() to the given stream every so often, until the
+     * returned task is cancelled or the program ends. Every dump runs on the
+     * same daemon thread, which is only started by the first one.
+     *
+     * @param seconds how long to wait between snapshots.
+     * @param out     where to print them.
+     * @return the scheduled task.
+     */
+    public ScheduledFuture<?> dumpEvery(long seconds, PrintStream out) {
+        return DUMPS.scheduleAtFixedRate(() -> out.print(snapshot()), seconds, seconds, TimeUnit.SECONDS);
+    }
+}
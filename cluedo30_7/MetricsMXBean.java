@@ -0,0 +1,31 @@
+package cluedo30_7;
+
+import java.util.Map;
+
+/**
+ * The MetricsMXBean interface is what JMX tools such as JConsole see of
+ * Metrics.global(), registered as cluedo30_7:type=Metrics. Counts and
+ * latencies are keyed by the name of their Metrics.Phase, and latencies are
+ * given in nanoseconds.
+ */
+public interface MetricsMXBean {
+    long getGames();
+    long getTurns();
+    long getMoves();
+    double getMovesPerSecond();
+    Map<String, Long> getPhaseCounts();
+    Map<String, Double> getLatencyMeanNanos();
+    Map<String, Long> getLatencyP50Nanos();
+    Map<String, Long> getLatencyP99Nanos();
+    Map<String, Long> getLatencyMaxNanos();
+
+    /**
+     * Returns the same report a periodic dump prints.
+     */
+    String snapshot();
+
+    /**
+     * Forgets everything recorded so far.
+     */
+    void reset();
+}
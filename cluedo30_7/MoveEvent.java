@@ -0,0 +1,37 @@
+package cluedo30_7;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The MoveEvent class covers one move command, which may take several steps.
+ */
+@Name("cluedo30_7.Move")
+@Label("Move")
+@Category("Cluedo")
+@Description("One move command, from asking for it to taking its steps")
+@Enabled(false)
+@StackTrace(false)
+final class MoveEvent extends Event {
+    @Label("Game Id")
+    long gameId;
+
+    @Label("Player")
+    String player;
+
+    @Label("From")
+    @Description("Packed board index of the cell the player started on")
+    int from;
+
+    @Label("To")
+    @Description("Packed board index of the cell the player ended on")
+    int to;
+
+    @Label("Steps")
+    int steps;
+}
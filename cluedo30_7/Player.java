@@ -1,7 +1,8 @@
 package cluedo30_7;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import static cluedo30_7.Board.Direction;
+import static cluedo30_7.EventSink.Level;
 
 /**
  * The Player class handles all the details of moving the players across the
@@ -11,40 +12,45 @@ import java.util.List;
 public class Player{
     private final String name;
     private final Game game;
-    private final List<String> hand;
-    private final List<String> seen;
-    private final List<Cell> used;
+    private final int id;
+    private int hand;
+    private int seen;
+    private final int[] visited;  // [cell, then numCells + estate] the turn each was last used on.
+    private int turnNumber;       // Bumped every turn, so nothing needs clearing.
+    private final int[] visitLog; // The slots of visited set this turn, in order, so a path can be undone.
+    private int visitCount;
     private boolean canSolve = true;
-    private int row;
-    private int column;
+    private long hash;            // Zobrist hash of what this player knows: seen and canSolve.
 
     /**
      * Constructs a new Player object.
      *
      * @param name     The name of the player.
      * @param game     The game the player is a part of
-     * @param row      The initial row position of the player on the game board.
-     * @param col      The initial column position of the player on the game board.
+     * @param id       The player's seat in the game, from 0 to 3.
      */
-    public Player(String name, Game game, int row, int col) {
+    public Player(String name, Game game, int id) {
         this.name = name;
         this.game = game;
-        this.row = row;
-        this.column = col;
-        this.hand = new ArrayList<>();
-        this.seen = new ArrayList<>();
-        this.used = new ArrayList<>();
-
+        this.id = id;
+        Board board = game.board();
+        this.visited = new int[board.rows() * board.cols() + board.estates().length];
+        this.visitLog = new int[visited.length];
     }
 
     public String toString(){return name.substring(0, 2);}
 
-    //Getter and Setter methods for row and column
+    //Getter methods for row and column, read from the board's location index
     public boolean canSolve()   {return canSolve;}
-    public void setRow(int row) { this.row = row;}
-    public int row()   {return row;}
-    public void setColumn(int col){this.column = col;}
-    public int column(){return column;}
+    public int row()   {return location() / game.board().cols();}
+    public int column(){return location() % game.board().cols();}
+
+    /**
+     * Getter method for the player's seat, used to mark them on the packed board.
+     */
+    public int id() {
+        return id;
+    }
 
     /**
      * Getter method for 'name'.
@@ -57,36 +63,61 @@ public class Player{
      * Add a card to the player's hand.
      * @param card The card to add.
      */
-    public void addToHand(String card) {
-        hand.add(card);
+    public void addToHand(Card card) {
+        hand |= card.mask();
     }
 
     /**
      * Get the player's hand.
-     * @return the player's list of Cards.
+     * @return the mask of the player's Cards.
      */
-    public List<String> hand() {
-        return List.copyOf(hand);
+    public int hand() {
+        return hand;
     }
 
     /**
-     * setter method for the cell containing this player.
+     * Get the cards other players have shown this player.
+     * @return the mask of the player's seen Cards.
+     */
+    public int seen() {
+        return seen;
+    }
+
+    /**
+     * Getter method for the Zobrist hash of the cards this player has seen
+     * and whether they have used their solve attempt, see Game.hash().
+     */
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * setter method for the cell containing this player. Stepping onto an
+     * entrance puts the player in its estate.
      *
-     * @param fromCell the cell the player came from.
-     * @param   toCell the cell to move the player into.
-     * @throws IllegalArgumentException if the player isn't located in fromCell or toCell is full.
+     * @param from the packed board index of the cell the player came from.
+     * @param   to the packed board index of the cell to move the player into.
+     * @throws IllegalArgumentException if the player isn't located in from.
+     * @throws IllegalStateException if to is full.
      */
-    public void setPlayerLocation(Cell fromCell, Cell toCell) {
-        fromCell.removePlayer(this);
-        toCell.setPlayer(this);
+    public void setPlayerLocation(int from, int to) {
+        game.board().leave(this, from);
+        game.board().enter(this, to);
     }
 
+    /**
+     * getter method for the packed board index of the cell containing this player
+     *
+     * @return location - the index of the cell on the players row and column.
+     */
+    public int location() {return game.board().location(id);}
+
     /*
      * getter method for the cell containing this player
      *
      * @return playerLocation - the cell located on the players row and column.
      */
-    public Cell playerLocation() {return game.board().cellAt(row, column);}
+    public Cell playerLocation() {return game.board().cellAt(row(), column());}
 
     /**
      * method to process a players turn.
@@ -94,73 +125,245 @@ public class Player{
      * @return gameOver whether the player has made a successful solution attempt this turn;
      */
     public boolean turn(int roll) {
+        TurnEvent event = new TurnEvent();
+        event.begin();
         char exitStatus = 'c';
-        this.used.clear();
-        this.used.add(game.board().cellAt(row, column));
-        for (int i = 0; i < roll; i++) {
-            game.board().print();
-            System.out.printf("%s's Turn: %d moves left\n", this.name(), roll-i);
-            if (playerLocation() instanceof Estate) {
+        startVisits();
+        for (int i = 0; i < roll; ) {
+            game.showBoard();
+            if (game.out().enabled()) {
+                game.out().printf("%s's Turn: %d moves left\n", this.name(), roll-i);
+            }
+            if (game.board().kind(location()) == Board.ESTATE) {
                 print();
-                exitStatus = offerGuess();
+                exitStatus = offerGuess(roll-i);
             }
             if (exitStatus == 't' || exitStatus == 'g') {
                 break;
-            } else {
-                move();
             }
+            MoveEvent moveEvent = new MoveEvent();
+            moveEvent.begin();
+            int from = moveEvent.isEnabled() ? location() : -1;
+            long start = game.metrics().start();
+            int steps = move(roll-i);
+            game.metrics().record(Metrics.Phase.MOVE, start);
+            game.metrics().moved(steps);
+            moveEvent.end();
+            if (moveEvent.shouldCommit()) {
+                moveEvent.gameId = game.id();
+                moveEvent.player = name;
+                moveEvent.from = from;
+                moveEvent.to = location();
+                moveEvent.steps = steps;
+                moveEvent.commit();
+            }
+            if (steps == 0) {
+                break;
+            }
+            i += steps;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.gameId = game.id();
+            event.turn = game.turns();
+            event.player = name;
+            event.roll = roll;
+            event.commit();
         }
         return (exitStatus == 'g');
     }
 
     /**
      * Method to handle user input for moving using characters
-     * 'w', 'a', 's', 'd'
+     * 'w', 'a', 's', 'd', or 'p' to stop moving for the rest of the turn.
+     * Several directions can be given at once (e.g. "wwddd"), which are
+     * made as a single move: either every step is taken or none are.
+     * After Game.retries() rejected commands the player stops moving.
+     *
+     * @param movesLeft how many moves the player has left this turn.
+     * @return how many steps the player moved, 0 if they stopped moving.
      */
-    public void move() {
-        System.out.println("Enter a command (w, a, s, d) to move: ");
-        char direction = Character.toLowerCase(game.scanner().next().charAt(0));
-
-        switch (direction) {
-            case 'w' -> {
-                if (moveUp()) {
-                    System.out.println("You pressed 'w'. Moving up.");
+    public int move(int movesLeft) {
+        EventSink out = game.out();
+        for (int attempt = 0; attempt < game.retries(); attempt++) {
+            out.println(Level.PROMPT, "Enter a command (w, a, s, d) to move, several at once (e.g. wwd), or p to stop moving: ");
+            String path = game.decisions().path(this, movesLeft, attempt);
+            if (path.length() > 1) {
+                if (!isPath(path)) {
+                    out.println("Invalid path. Use only w, a, s and d.");
+                } else if (path.length() > movesLeft) {
+                    if (out.enabled()) {
+                        out.printf("You only have %d moves left. Try again.\n", movesLeft);
+                    }
+                } else if (movePath(path)) {
+                    if (out.enabled()) {
+                        out.printf("You entered '%s'. Moving %d steps.\n", path, path.length());
+                    }
+                    return path.length();
                 } else {
-                    System.out.println("Up is blocked. Try another direction.");
-                    move();
+                    out.println("That path is blocked. Try another.");
                 }
+                continue;
             }
-            case 'a' -> {
-                if (moveLeft()) {
-                    System.out.println("You pressed 'a'. Moving left.");
-                } else {
-                    System.out.println("Left is blocked. Try another direction.");
-                    move();
+            char direction = path.isEmpty() ? ' ' : path.charAt(0);
+
+            switch (direction) {
+                case 'w' -> {
+                    if (moveUp()) {
+                        out.println("You pressed 'w'. Moving up.");
+                        return 1;
+                    }
+                    out.println("Up is blocked. Try another direction.");
                 }
-            }
-            case 's' -> {
-                if (moveDown()) {
-                    System.out.println("You pressed 's'. Moving down.");
-                } else {
-                    System.out.println("Down is blocked. Try another direction.");
-                    move();
+                case 'a' -> {
+                    if (moveLeft()) {
+                        out.println("You pressed 'a'. Moving left.");
+                        return 1;
+                    }
+                    out.println("Left is blocked. Try another direction.");
                 }
-            }
-            case 'd' -> {
-                if (moveRight()) {
-                    System.out.println("You pressed 'd'. Moving right.");
-                } else {
-                    System.out.println("Right is blocked. Try another direction.");
-                    move();
+                case 's' -> {
+                    if (moveDown()) {
+                        out.println("You pressed 's'. Moving down.");
+                        return 1;
+                    }
+                    out.println("Down is blocked. Try another direction.");
+                }
+                case 'd' -> {
+                    if (moveRight()) {
+                        out.println("You pressed 'd'. Moving right.");
+                        return 1;
+                    }
+                    out.println("Right is blocked. Try another direction.");
+                }
+                case 'p' -> {
+                    out.println("You pressed 'p'. Ending your turn.");
+                    return 0;
                 }
+                default -> out.println("Invalid direction. Try again.");
             }
-            default -> {
-                System.out.println("Invalid direction. Try again.");
-                move();
+        }
+        out.println("Too many invalid moves. Ending your turn.");
+        return 0;
+    }
+
+
+    /**
+     * Checks that a path is made up only of the letters w, a, s and d.
+     */
+    private static boolean isPath(String path) {
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c != 'w' && c != 'a' && c != 's' && c != 'd') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Makes every step of a path, or none of them if any step can't be made.
+     * Only the last step may enter an estate, so the player can still guess there.
+     *
+     * @param path the directions to move in, each one of 'w', 'a', 's' or 'd'.
+     * @return true if the whole path was taken.
+     */
+    private boolean movePath(String path) {
+        int start = location();
+        int logStart = visitCount;
+        for (int step = 0; step < path.length(); step++) {
+            boolean moved = switch (path.charAt(step)) {
+                case 'w' -> moveUp();
+                case 'a' -> moveLeft();
+                case 's' -> moveDown();
+                case 'd' -> moveRight();
+                default -> false;
+            };
+            if (!moved || (step < path.length() - 1 && game.board().kind(location()) == Board.ESTATE)) {
+                // Put the player back and forget the cells this path used.
+                if (location() != start) {
+                    setPlayerLocation(location(), start);
+                }
+                while (visitCount > logStart) {
+                    visited[visitLog[--visitCount]] = 0;
+                }
+                return false;
             }
         }
+        return true;
+    }
+
+    /**
+     * Starts a new turn's record of used cells, holding only where the player is now.
+     */
+    private void startVisits() {
+        if (++turnNumber == 0) { // Wrapped around, so old turns could look like this one.
+            Arrays.fill(visited, 0);
+            turnNumber = 1;
+        }
+        visitCount = 0;
+        Board board = game.board();
+        int start = location();
+        if (board.kind(start) == Board.ESTATE) {
+            visitEstate(board.estateId(start));
+        } else {
+            visit(start);
+        }
+    }
+
+    /**
+     * Marks a cell as used this turn. Every cell of an estate counts as the estate itself.
+     *
+     * @param i the packed index of the cell.
+     * @return true if it hadn't been used yet this turn.
+     */
+    private boolean visit(int i) {
+        Board board = game.board();
+        if (board.kind(i) == Board.ESTATE) {
+            return visitEstate(board.estateId(i));
+        }
+        if (visited[i] == turnNumber) {
+            return false;
+        }
+        visited[i] = turnNumber;
+        visitLog[visitCount++] = i;
+        return true;
     }
 
+    /**
+     * Marks an estate as used this turn.
+     *
+     * @param estate the estate's index in Board.estates().
+     * @return true if it hadn't been used yet this turn.
+     */
+    private boolean visitEstate(int estate) {
+        int slot = visited.length - game.board().estates().length + estate;
+        if (visited[slot] == turnNumber) {
+            return false;
+        }
+        visited[slot] = turnNumber;
+        visitLog[visitCount++] = slot;
+        return true;
+    }
+
+    /**
+     * Steps out of the estate the player is in through its exit on the given
+     * side. The exit cell counts as used this turn, as it does for any other
+     * step and for Board.reachable().
+     *
+     * @param from the packed index of the player's cell in the estate.
+     * @return true if the player left the estate.
+     */
+    private boolean leaveEstate(int from, Direction direction) {
+        if (!game.board().estateAt(from).move(this, direction)) {
+            return false;
+        }
+        if (!visit(location())) {
+            setPlayerLocation(location(), from);
+            return false;
+        }
+        return true;
+    }
 
     /**
      * Checks that the player can move up before shifting them.
@@ -169,28 +372,33 @@ public class Player{
      * @return true if the player moves to a valid square, false if not.
      */
     private boolean moveUp() {
+        int row = row(), column = column();
         if (row > 0) {
-            Cell playerLocation = game.board().cellAt(row, column);
-            Cell newCell = game.board().cellAt(row - 1, column);
-            if (used.contains(newCell)) {
-                return false;
-            } else {
-                used.add(newCell);
+            Board board = game.board();
+            int from = location();
+            int to = board.index(row - 1, column);
+            if (board.kind(from) == Board.ESTATE) {
+                return leaveEstate(from, Direction.UP);
             }
-            if (playerLocation instanceof Estate) {
-                return ((Estate) playerLocation).move(this, "w");
-            } else if (newCell instanceof Path && newCell.isPassable()) {
-                setPlayerLocation(playerLocation, newCell);
-                row--;
-                return true;
-            } else if (newCell instanceof Entrance) {
-                setPlayerLocation(playerLocation, ((Entrance) newCell).estate());
-                row -= 2;
-                return true;
-            } else {
-                System.out.println("Up is blocked. Try another direction.");
+            if (!visit(to)) {
                 return false;
             }
+            switch (board.kind(to)) {
+                case Board.PATH -> {
+                    if (!board.isFree(to)) {
+                        return false;
+                    }
+                    setPlayerLocation(from, to);
+                    return true;
+                }
+                case Board.ENTRANCE -> {
+                    setPlayerLocation(from, to);
+                    return true;
+                }
+                default -> {
+                    return false;
+                }
+            }
         }
         return false;
     }
@@ -202,28 +410,34 @@ public class Player{
      * @return true if the player moves to a valid square, false if not.
      */
     private boolean moveDown() {
-        if (row < 23) {
-            Cell playerLocation = game.board().cellAt(row, column);
-            Cell newCell = game.board().cellAt(row + 1, column);
-            if (used.contains(newCell)) {
+        int row = row(), column = column();
+        if (row < game.board().rows() - 1) {
+            Board board = game.board();
+            int from = location();
+            int to = board.index(row + 1, column);
+            if (board.kind(from) == Board.ESTATE) {
+                return leaveEstate(from, Direction.DOWN);
+            }
+            if (!visit(to)) {
                 return false;
-            } else {
-                used.add(newCell);
             }
-            if (playerLocation instanceof Estate) {
-                return ((Estate) playerLocation).move(this, "s");
-            } else if (newCell instanceof Path && newCell.isPassable()) {
-                setPlayerLocation(playerLocation, newCell);
-                row++;
-                return true;
-            } else if (newCell instanceof Entrance) {
-                System.out.println("DEBUG ONLY: newCell = " + newCell);
-                System.out.println("DEBUG ONLY: (Entrance)newCell = " + newCell);
-                System.out.println("DEBUG ONLY: estate = " + ((Entrance)newCell).estate());
-                //Error could be in cellAt()???
-                setPlayerLocation(playerLocation, ((Entrance) newCell).estate());
-                row += 2;
-                return true;
+            switch (board.kind(to)) {
+                case Board.PATH -> {
+                    if (!board.isFree(to)) {
+                        return false;
+                    }
+                    setPlayerLocation(from, to);
+                    return true;
+                }
+                case Board.ENTRANCE -> {
+                    game.out().printf(Level.DEBUG, "Entrance at %d,%d leads into %s\n",
+                            row + 1, column, board.estateAt(to));
+                    setPlayerLocation(from, to);
+                    return true;
+                }
+                default -> {
+                    return false;
+                }
             }
         }
         return false;
@@ -236,27 +450,33 @@ public class Player{
      * @return true if the player moves to a valid square, false if not.
      */
     private boolean moveRight() {
-        if (column < 23) {
-            Cell playerLocation = game.board().cellAt(row, column);
-            Cell newCell = game.board().cellAt(row, column + 1);
-            if (used.contains(newCell)) {
-                return false;
-            } else {
-                used.add(newCell);
+        int row = row(), column = column();
+        if (column < game.board().cols() - 1) {
+            Board board = game.board();
+            int from = location();
+            int to = board.index(row, column + 1);
+            if (board.kind(from) == Board.ESTATE) {
+                return leaveEstate(from, Direction.RIGHT);
             }
-            if (playerLocation instanceof Estate) {
-                return ((Estate) playerLocation).move(this, "d");
-            } else if (newCell instanceof Path && newCell.isPassable()) {
-                setPlayerLocation(playerLocation, newCell);
-                column++;
-                return true;
-            } else if (newCell instanceof Entrance) {
-                setPlayerLocation(playerLocation, ((Entrance) newCell).estate());
-                column += 2;
-                return true;
-            } else {
+            if (!visit(to)) {
                 return false;
             }
+            switch (board.kind(to)) {
+                case Board.PATH -> {
+                    if (!board.isFree(to)) {
+                        return false;
+                    }
+                    setPlayerLocation(from, to);
+                    return true;
+                }
+                case Board.ENTRANCE -> {
+                    setPlayerLocation(from, to);
+                    return true;
+                }
+                default -> {
+                    return false;
+                }
+            }
         } else {
             return false;
         }
@@ -268,28 +488,34 @@ public class Player{
      * @return true if the player moves to a valid square, false if not.
      */
     private boolean moveLeft() {
+        int row = row(), column = column();
         if(column > 0) {
-            Cell playerLocation = game.board().cellAt(row, column);
-            Cell newCell = game.board().cellAt(row, column - 1);
-            if (used.contains(newCell)) {
+            Board board = game.board();
+            int from = location();
+            int to = board.index(row, column - 1);
+            if (board.kind(from) == Board.ESTATE) {
+                return leaveEstate(from, Direction.LEFT);
+            }
+            if (!visit(to)) {
                 return false;
-            } else {
-                used.add(newCell);
             }
-            if (playerLocation instanceof Estate) {
-                return ((Estate) playerLocation).move(this, "a");
-            } else if (newCell instanceof Path & newCell.isPassable()) {
-                setPlayerLocation(playerLocation, newCell);
-                column--;
-                return true;
-            } else if (newCell instanceof Entrance) {
-                Estate estate = ((Entrance) newCell).estate();
-                if (!used.contains(estate)) {
-                    used.add(estate);
-                    setPlayerLocation(playerLocation, estate);
-                    column -= 2;
+            switch (board.kind(to)) {
+                case Board.PATH -> {
+                    if (!board.isFree(to)) {
+                        return false;
+                    }
+                    setPlayerLocation(from, to);
                     return true;
-                } else {
+                }
+                case Board.ENTRANCE -> {
+                    if (visitEstate(board.estateId(to))) {
+                        setPlayerLocation(from, to);
+                        return true;
+                    } else {
+                        return false;
+                    }
+                }
+                default -> {
                     return false;
                 }
             }
@@ -299,19 +525,37 @@ public class Player{
 
     /**
      * asks the player if they would like to make a guess or solution attempt.
+     * Asking to solve after already having tried asks again, until the
+     * player runs out of retries and passes.
      *
+     * @param movesLeft how many moves the player has left this turn.
      * @return char - 'g' for game over, 't' for turn  over, or 'c' for continue.
      */
-    private char offerGuess() {
-        System.out.println("Enter 'g' to make a guess or 's' to offer a solution: ");
-        System.out.println("Anything else will be treated as a pass");
-        char input = game.scanner().next().charAt(0);
-
-        return switch (input) {
-            case 'g' -> makeGuess();
-            case 's' -> solutionAttempt();
-            default -> 'c';
-        };
+    private char offerGuess(int movesLeft) {
+        for (int attempt = 0; attempt < game.retries(); attempt++) {
+            game.out().println("Enter 'g' to make a guess or 's' to offer a solution: ");
+            game.out().println(Level.PROMPT, "Anything else will be treated as a pass");
+            char input = game.decisions().guessOrSolve(this, movesLeft);
+
+            if (input == 'g') {
+                long start = game.metrics().start();
+                char status = makeGuess();
+                game.metrics().record(Metrics.Phase.GUESS, start);
+                return status;
+            }
+            if (input != 's') {
+                return 'c';
+            }
+            if (canSolve) {
+                long start = game.metrics().start();
+                char status = solutionAttempt();
+                game.metrics().record(Metrics.Phase.SOLVE, start);
+                return status;
+            }
+            game.out().println("You already made a solve attempt");
+        }
+        game.out().println("Too many invalid answers. Passing.");
+        return 'c';
     }
 
     /**
@@ -321,18 +565,23 @@ public class Player{
      * @return char - 't' for turn over
      */
     private char makeGuess() {
-        System.out.println("Enter your guess:");
+        game.out().println("Enter your guess:");
 
-        ArrayList<String> guess = guess();
+        int guess = guess();
 
         // Check if the guess can be refuted.
-        String alibi = game.refute(this, guess);
+        Card alibi = game.refute(this, guess);
 
         if (alibi == null) {
-            System.out.println("No one could refute your guess");
+            game.out().println("No one could refute your guess");
         } else {
-            this.seen.add(alibi);
-            System.out.printf("%s was not part of the crime\n", alibi);
+            if (!alibi.in(seen)) {
+                seen |= alibi.mask();
+                hash ^= Zobrist.seen(id, alibi);
+            }
+            if (game.out().enabled()) {
+                game.out().printf("%s was not part of the crime\n", alibi);
+            }
         }
 
         return 't';
@@ -340,57 +589,78 @@ public class Player{
 
     /**
      * asks the player for valid suspect, weapon and estate which it compares
-     * to the true murderer, weapon and crime scene.
+     * to the true murderer, weapon and crime scene. Only called while the
+     * player still has their solve attempt.
      *
      * @return char - 'g' for game over or 't' for turn over.
      */
     private char solutionAttempt() {
-        if (canSolve) {
-            System.out.println("Enter your solution:");
-            ArrayList<String> guess = guess();
-            // Check if the solution attempt matches the actual solution
-            canSolve = game.checkSolution(guess);
-        } else {
-            System.out.println("You already made a solve attempt");
-            return offerGuess();
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        game.out().println("Enter your solution:");
+        int guess = guess();
+        // Check if the solution attempt matches the actual solution
+        canSolve = game.checkSolution(guess);
+        if (!canSolve) {
+            hash ^= Zobrist.solved(id);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.gameId = game.id();
+            event.player = name;
+            event.guess = Card.names(guess);
+            event.correct = canSolve;
+            event.commit();
         }
         if (canSolve) {
-            System.out.println("Congratulations " + this.name + "! You successfully solved the mystery.");
+            game.out().println("Congratulations " + this.name + "! You successfully solved the mystery.");
             return 'g';
         } else {
-            System.out.println("Your solution attempt is incorrect.");
+            game.out().println("Your solution attempt is incorrect.");
             return 't';
         }
     }
 
     /**
-     * asks the player for valid suspect, weapon and estate which it adds to a list
+     * asks the player for valid suspect, weapon and estate which it combines into a mask
      *
-     * @return guess - the list of suspect, weapon and estate
+     * @return guess - the mask of the suspect, weapon and estate
      */
-    private ArrayList<String> guess() {
+    private int guess() {
 
         // add suspect, weapon, and estate cards based on the player's input
-        ArrayList<String> guess = new ArrayList<>();
-        guess.add(game.suspectCard());
-        guess.add(game.weaponCard());
-        guess.add(((Estate) playerLocation()).name());
+        int guess = game.suspectCard(this).mask();
+        guess |= game.weaponCard(this).mask();
+        guess |= game.board().estateAt(location()).card().mask();
         return guess;
     }
 
-    public String refute(ArrayList<String> guess) {
-        boolean containsAny = hand.stream()
-                .map(guess::contains)
-                .toList().contains(true);
-        String alibi = null;
-        if (containsAny) {
-            while (!guess.contains(alibi)) {
-                System.out.printf("Choose a card from %s that is in %s to share\n",
-                        hand, guess);
-                alibi = game.scanner().nextLine();
+    /**
+     * Lets the player show one of their cards that is in the guess, if they have any.
+     * If they run out of retries without naming one, the first of them is shown.
+     *
+     * @param guess the mask of the suspect, weapon and estate being guessed.
+     * @return alibi - the card shown, or null if the player holds none of them.
+     */
+    public Card refute(int guess) {
+        int matching = hand & guess;
+        Card alibi = null;
+        if (matching != 0) {
+            for (int attempt = 0; attempt < game.retries() && (alibi == null || !alibi.in(matching)); attempt++) {
+                if (game.out().enabled(Level.PROMPT)) {
+                    game.out().printf(Level.PROMPT, "Choose a card from %s that is in %s to share\n",
+                            Card.names(hand), Card.names(guess));
+                }
+                alibi = game.decisions().alibi(this, matching);
+            }
+            if (alibi == null || !alibi.in(matching)) {
+                alibi = Card.first(matching);
+                if (game.out().enabled()) {
+                    game.out().printf("Too many invalid answers. Sharing %s.\n", alibi);
+                }
             }
         }
-        System.out.println(this.name + " has refuted. Pass Tablet to next player.");
+        game.out().println(this.name + " has refuted. Pass Tablet to next player.");
         return alibi;
     }
 
@@ -398,17 +668,21 @@ public class Player{
      * Prints the players' name and their hand to the console
      */
     public void print() {
-        System.out.println("\nHand:");
-        System.out.println("----------");
-        for (String card : hand()) {
-            System.out.println(card);
+        EventSink out = game.out();
+        if (!out.enabled()) {
+            return;
+        }
+        out.println("\nHand:");
+        out.println("----------");
+        for (int m = hand; m != 0; m &= m - 1) {
+            out.println(Card.first(m).toString());
         }
-        System.out.println("\nSeen:");
-        System.out.println("----------");
-        for (String card : seen) {
-            System.out.println(card);
+        out.println("\nSeen:");
+        out.println("----------");
+        for (int m = seen; m != 0; m &= m - 1) {
+            out.println(Card.first(m).toString());
         }
-        System.out.println("----------");
+        out.println("----------");
     }
 
     public Game game() {
@@ -0,0 +1,115 @@
+package cluedo30_7;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * A simple bot that wanders the board at random, guesses with cards it
+ * hasn't seen yet, and only attempts a solution once it is certain.
+ * Used to play headless games without anyone at the console.
+ */
+public class RandomDecisions implements DecisionProvider {
+    private static final char[] DIRECTIONS = {'w', 'a', 's', 'd'};
+    private static final int GIVE_UP_AFTER = 8;
+
+    private final int numPlayers;
+    private final SplittableRandom random;
+    private final Map<Player, Estate> lastGuessed = new HashMap<>();
+
+    /**
+     * Constructs a RandomDecisions bot for every seat in the game.
+     *
+     * @param numPlayers how many players the game should have (3 to 4).
+     * @param seed       the seed for the bot's choices.
+     */
+    public RandomDecisions(int numPlayers, long seed) {
+        this(numPlayers, new SplittableRandom(seed));
+    }
+
+    /**
+     * Constructs a RandomDecisions bot drawing its choices from the given generator,
+     * usually split off the game's own generator.
+     *
+     * @param numPlayers how many players the game should have (3 to 4).
+     * @param random     the generator for the bot's choices.
+     */
+    public RandomDecisions(int numPlayers, SplittableRandom random) {
+        this.numPlayers = numPlayers;
+        this.random = random;
+    }
+
+    @Override
+    public int numberOfPlayers() {
+        return numPlayers;
+    }
+
+    @Override
+    public void handOver(Player player) {}
+
+    /**
+     * Picks a random direction, giving up on moving once too many have been rejected.
+     */
+    @Override
+    public char direction(Player player, int movesLeft, int attempt) {
+        if (player.game().board().kind(player.location()) != Board.ESTATE) {
+            lastGuessed.remove(player);
+        }
+        if (attempt >= GIVE_UP_AFTER) {
+            return 'p';
+        }
+        return DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+    }
+
+    /**
+     * Solves if only the solution is left unseen, guesses on first arriving
+     * in an estate, and otherwise passes so it can leave again.
+     */
+    @Override
+    public char guessOrSolve(Player player, int movesLeft) {
+        Estate estate = player.game().board().estateAt(player.location());
+        int unseen = Card.ALL & ~(player.hand() | player.seen());
+        if (player.canSolve()
+                && Integer.bitCount(unseen & Card.Type.SUSPECT.mask()) == 1
+                && Integer.bitCount(unseen & Card.Type.WEAPON.mask()) == 1
+                && (unseen & Card.Type.ESTATE.mask()) == estate.card().mask()) {
+            return 's';
+        }
+        if (lastGuessed.get(player) != estate) {
+            lastGuessed.put(player, estate);
+            return 'g';
+        }
+        return 'c';
+    }
+
+    @Override
+    public Card suspect(Player player) {
+        return pick(unseen(player, Card.Type.SUSPECT));
+    }
+
+    @Override
+    public Card weapon(Player player) {
+        return pick(unseen(player, Card.Type.WEAPON));
+    }
+
+    @Override
+    public Card estate(Player player) {
+        return pick(unseen(player, Card.Type.ESTATE));
+    }
+
+    @Override
+    public Card alibi(Player player, int matching) {
+        return pick(matching);
+    }
+
+    /**
+     * Filters the given type of card down to those the player has neither held nor been shown.
+     */
+    private int unseen(Player player, Card.Type type) {
+        return type.mask() & ~(player.hand() | player.seen());
+    }
+
+    private Card pick(int cards) {
+        return Card.nth(cards, random.nextInt(Integer.bitCount(cards)));
+    }
+}
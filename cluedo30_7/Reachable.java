@@ -0,0 +1,110 @@
+package cluedo30_7;
+
+import java.util.Arrays;
+
+/**
+ * The Reachable class holds the answer to Board.reachable(): every path cell
+ * and estate a player could end up in this turn. Cells are stored as a bitset
+ * over the board's packed indices and estates as a mask of estate ids, so a
+ * single instance can be reused for every query without allocating.
+ */
+public class Reachable {
+    private final int numCols;
+    private final long[] cells;
+    private final long[] frontier; // Scratch space for Board.reachable().
+    private final long[] next;
+    private final long[] occupied; // Scratch space for GameState.reachable().
+    private int estates;
+
+    /**
+     * Constructs an empty Reachable set big enough for the given board.
+     *
+     * @param board the board the set will be filled in for.
+     */
+    public Reachable(Board board) {
+        this(board.layout());
+    }
+
+    /**
+     * Constructs an empty Reachable set big enough for any board on the given layout.
+     *
+     * @param layout the layout the set will be filled in for.
+     */
+    public Reachable(Layout layout) {
+        int words = (layout.rows() * layout.cols() + 63) >>> 6;
+        this.numCols = layout.cols();
+        this.cells = new long[words];
+        this.frontier = new long[words];
+        this.next = new long[words];
+        this.occupied = new long[words];
+    }
+
+    /**
+     * Empties the set so it can be filled in again.
+     */
+    void clear() {
+        Arrays.fill(cells, 0);
+        Arrays.fill(frontier, 0);
+        Arrays.fill(next, 0);
+        estates = 0;
+    }
+
+    /**
+     * Getter methods for the bitsets, filled in by the Board.
+     */
+    long[] cells()    { return cells; }
+    long[] frontier() { return frontier; }
+    long[] next()     { return next; }
+    long[] occupied() { return occupied; }
+
+    void setEstates(int estates) { this.estates = estates; }
+
+    /**
+     * Checks whether a path cell can be reached.
+     *
+     * @param i the packed index of the cell.
+     * @return true if the player can end their move on the cell.
+     */
+    public boolean contains(int i) {
+        return (cells[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * Checks whether a path cell can be reached.
+     *
+     * @param row the Y coordinate of the cell.
+     * @param col the X coordinate of the cell.
+     * @return true if the player can end their move on the cell.
+     */
+    public boolean contains(int row, int col) {
+        return contains(row * numCols + col);
+    }
+
+    /**
+     * Checks whether an estate can be reached.
+     *
+     * @param id the estate's index in Board.estates().
+     * @return true if the player can end their move in the estate.
+     */
+    public boolean containsEstate(int id) {
+        return (estates & (1 << id)) != 0;
+    }
+
+    /**
+     * Getter method for the mask of reachable estate ids.
+     */
+    public int estates() { return estates; }
+
+    /**
+     * Counts the reachable path cells.
+     *
+     * @return the number of cells, not counting estates.
+     */
+    public int cellCount() {
+        int count = 0;
+        for (long word : cells) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,33 @@
+package cluedo30_7;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The RefuteEvent class covers asking every other player to refute a guess.
+ */
+@Name("cluedo30_7.Refute")
+@Label("Refute")
+@Category("Cluedo")
+@Description("Asking every other player to refute a guess")
+@Enabled(false)
+@StackTrace(false)
+final class RefuteEvent extends Event {
+    @Label("Game Id")
+    long gameId;
+
+    @Label("Guesser")
+    String guesser;
+
+    @Label("Guess")
+    String guess;
+
+    @Label("Alibi")
+    @Description("The first card shown, or null if nobody could refute")
+    String alibi;
+}
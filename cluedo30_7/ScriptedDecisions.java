@@ -0,0 +1,101 @@
+package cluedo30_7;
+
+import java.io.InputStream;
+
+/**
+ * Reads every decision from a CommandReader, one word per answer. This is how
+ * games are played when the input isn't a terminal, such as a script piped in
+ * for a regression or load test: it reads the same answers ConsoleDecisions
+ * would, without Scanner's regular expressions, and treats new lines like any
+ * other space. Once the script runs out, finished() tells the game to stop.
+ */
+public class ScriptedDecisions implements DecisionProvider {
+    private static final String[] LETTERS = new String[128]; // Single letter paths, so they aren't allocated.
+    static {
+        for (char c = 0; c < LETTERS.length; c++) {
+            LETTERS[c] = String.valueOf(c);
+        }
+    }
+
+    private final CommandReader reader;
+
+    /**
+     * Constructs a ScriptedDecisions reading from the given stream.
+     *
+     * @param in the stream of answers.
+     */
+    public ScriptedDecisions(InputStream in) {
+        this(new CommandReader(in));
+    }
+
+    /**
+     * Constructs a ScriptedDecisions reading from the given reader.
+     *
+     * @param reader the reader of answers.
+     */
+    public ScriptedDecisions(CommandReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public int numberOfPlayers() {
+        return reader.nextInt();
+    }
+
+    @Override
+    public void handOver(Player player) {
+        reader.advance();
+    }
+
+    @Override
+    public char direction(Player player, int movesLeft, int attempt) {
+        return Character.toLowerCase(reader.nextChar());
+    }
+
+    @Override
+    public String path(Player player, int movesLeft, int attempt) {
+        reader.advance();
+        if (reader.length() == 1 && reader.charAt(0) < LETTERS.length) {
+            return LETTERS[Character.toLowerCase(reader.charAt(0))];
+        }
+        return reader.word().toLowerCase();
+    }
+
+    @Override
+    public char guessOrSolve(Player player, int movesLeft) {
+        return reader.nextChar();
+    }
+
+    @Override
+    public Card suspect(Player player) {
+        return reader.nextCard();
+    }
+
+    @Override
+    public Card weapon(Player player) {
+        return reader.nextCard();
+    }
+
+    @Override
+    public Card estate(Player player) {
+        return reader.nextCard();
+    }
+
+    @Override
+    public Card alibi(Player player, int matching) {
+        return reader.nextCard();
+    }
+
+    @Override
+    public boolean finished() {
+        return reader.ended();
+    }
+
+    /**
+     * Closes the reader at the end of the game.
+     */
+    @Override
+    public void close() {
+        reader.close();
+    }
+}
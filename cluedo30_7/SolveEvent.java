@@ -0,0 +1,32 @@
+package cluedo30_7;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The SolveEvent class covers a solution attempt.
+ */
+@Name("cluedo30_7.Solve")
+@Label("Solution Attempt")
+@Category("Cluedo")
+@Description("A solution attempt, from choosing its cards to checking it")
+@Enabled(false)
+@StackTrace(false)
+final class SolveEvent extends Event {
+    @Label("Game Id")
+    long gameId;
+
+    @Label("Player")
+    String player;
+
+    @Label("Guess")
+    String guess;
+
+    @Label("Correct")
+    boolean correct;
+}
@@ -0,0 +1,118 @@
+package cluedo30_7;
+
+/**
+ * Times how long every question put to another DecisionProvider takes to be
+ * answered, recording it as Metrics.Phase.PROMPT. For a person at the console
+ * that is how long they spent thinking; for a bot it is the bot's own cost.
+ */
+final class TimedDecisions implements DecisionProvider {
+    private final DecisionProvider decisions;
+    private final Game game;
+
+    /**
+     * Constructs a TimedDecisions passing every question on to the given provider.
+     *
+     * @param decisions the provider answering the questions.
+     * @param game      the game whose metrics() the waits are recorded in,
+     *                  looked up on every question since it changes when play starts.
+     */
+    TimedDecisions(DecisionProvider decisions, Game game) {
+        this.decisions = decisions;
+        this.game = game;
+    }
+
+    @Override
+    public int numberOfPlayers() {
+        Metrics metrics = game.metrics();
+        long start = metrics.start();
+        int answer = decisions.numberOfPlayers();
+        metrics.record(Metrics.Phase.PROMPT, start);
+        return answer;
+    }
+
+    @Override
+    public void handOver(Player player) {
+        Metrics metrics = game.metrics();
+        long start = metrics.start();
+        decisions.handOver(player);
+        metrics.record(Metrics.Phase.PROMPT, start);
+    }
+
+    @Override
+    public char direction(Player player, int movesLeft, int attempt) {
+        Metrics metrics = game.metrics();
+        long start = metrics.start();
+        char answer = decisions.direction(player, movesLeft, attempt);
+        metrics.record(Metrics.Phase.PROMPT, start);
+        return answer;
+    }
+
+    @Override
+    public String path(Player player, int movesLeft, int attempt) {
+        Metrics metrics = game.metrics();
+        long start = metrics.start();
+        String answer = decisions.path(player, movesLeft, attempt);
+        metrics.record(Metrics.Phase.PROMPT, start);
+        return answer;
+    }
+
+    @Override
+    public char guessOrSolve(Player player, int movesLeft) {
+        Metrics metrics = game.metrics();
+        long start = metrics.start();
+        char answer = decisions.guessOrSolve(player, movesLeft);
+        metrics.record(Metrics.Phase.PROMPT, start);
+        return answer;
+    }
+
+    @Override
+    public Card suspect(Player player) {
+        Metrics metrics = game.metrics();
+        long start = metrics.start();
+        Card answer = decisions.suspect(player);
+        metrics.record(Metrics.Phase.PROMPT, start);
+        return answer;
+    }
+
+    @Override
+    public Card weapon(Player player) {
+        Metrics metrics = game.metrics();
+        long start = metrics.start();
+        Card answer = decisions.weapon(player);
+        metrics.record(Metrics.Phase.PROMPT, start);
+        return answer;
+    }
+
+    @Override
+    public Card estate(Player player) {
+        Metrics metrics = game.metrics();
+        long start = metrics.start();
+        Card answer = decisions.estate(player);
+        metrics.record(Metrics.Phase.PROMPT, start);
+        return answer;
+    }
+
+    @Override
+    public Card alibi(Player player, int matching) {
+        Metrics metrics = game.metrics();
+        long start = metrics.start();
+        Card answer = decisions.alibi(player, matching);
+        metrics.record(Metrics.Phase.PROMPT, start);
+        return answer;
+    }
+
+    @Override
+    public void refuted(Player guesser, int guess, int refuters, Card alibi) {
+        decisions.refuted(guesser, guess, refuters, alibi);
+    }
+
+    @Override
+    public boolean finished() {
+        return decisions.finished();
+    }
+
+    @Override
+    public void close() {
+        decisions.close();
+    }
+}
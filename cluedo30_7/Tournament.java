@@ -0,0 +1,221 @@
+package cluedo30_7;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The Tournament class plays many independent headless games across a fixed
+ * pool of worker threads and reports how they went. Each game gets its own
+ * Board, players and seed, and each worker keeps its own tallies until the
+ * end, so nothing is shared between threads while games are being played.
+ * A game's seed depends only on the tournament seed and the game's index, so
+ * any game can be replayed exactly, whatever the number of threads.
+ */
+public class Tournament {
+    private final int numPlayers;
+    private final long seed;
+    private final Layout layout;
+    private long searchBudget;
+
+    /**
+     * Constructs a Tournament of bot games.
+     *
+     * @param numPlayers how many players sit at each game (3 to 4).
+     * @param seed       the seed every game's own seed is derived from.
+     */
+    public Tournament(int numPlayers, long seed) {
+        this(numPlayers, seed, Layout.standard());
+    }
+
+    /**
+     * Constructs a Tournament of bot games on the given layout.
+     *
+     * @param numPlayers how many players sit at each game (3 to 4).
+     * @param seed       the seed every game's own seed is derived from.
+     * @param layout     the board every game is played on.
+     */
+    public Tournament(int numPlayers, long seed, Layout layout) {
+        if (numPlayers < 3 || numPlayers > 4) {
+            throw new IllegalArgumentException("The number of players must be between 3 and 4.");
+        }
+        this.numPlayers = numPlayers;
+        this.seed = seed;
+        this.layout = layout;
+    }
+
+    /**
+     * Has seat 0 played by an MctsDecisions bot, searching on one thread for
+     * the given time per decision, against RandomDecisions bots. Its seed is
+     * derived from the game's, so the deal and dice are the same as without it.
+     *
+     * @param nanos how long to search for each decision, or 0 for random bots only.
+     */
+    public void setSearchBudget(long nanos) {
+        this.searchBudget = nanos;
+    }
+
+    /**
+     * Plays a single complete headless game.
+     *
+     * @param gameIndex which game of the tournament this is, used to derive its seed.
+     * @param results   the tallies to add the game's outcome to.
+     */
+    void playGame(long gameIndex, Results results) {
+        SplittableRandom random = new SplittableRandom(gameSeed(gameIndex));
+        DecisionProvider bots = new RandomDecisions(numPlayers, random.split());
+        if (searchBudget > 0) {
+            bots = new MctsDecisions(bots, 1, searchBudget, 1, ~gameSeed(gameIndex));
+        }
+        Game game = new Game(bots, EventSink.NONE, random, layout);
+        int startingIndex = game.random().nextInt(numPlayers);
+        Player winner = game.clock(startingIndex);
+        results.record(winner == null ? -1 : game.seat(winner), game.turns());
+    }
+
+    /**
+     * Derives a game's seed by scrambling its index into the tournament seed.
+     *
+     * @param gameIndex which game of the tournament this is.
+     * @return the seed for that game's SplittableRandom.
+     */
+    long gameSeed(long gameIndex) {
+        long z = seed + gameIndex * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Plays the given number of games split evenly across the given number of threads.
+     *
+     * @param games   how many games to play.
+     * @param threads how many worker threads to play them on.
+     * @return results - the combined tallies of every game.
+     */
+    public Results play(long games, int threads) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Results>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long from = games * t / threads;
+                long to   = games * (t + 1) / threads;
+                futures.add(pool.submit(() -> {
+                    Results local = new Results(numPlayers);
+                    for (long g = from; g < to; g++) {
+                        playGame(g, local);
+                    }
+                    Metrics.local().flush();
+                    return local;
+                }));
+            }
+            Results total = new Results(numPlayers);
+            for (Future<Results> f : futures) {
+                total.add(f.get());
+            }
+            return total;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A tournament game failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * The tallies of a set of games: wins per seat, unfinished games and turns played.
+     */
+    public static final class Results {
+        private final long[] wins;
+        private long unsolved;
+        private long games;
+        private long turns;
+
+        Results(int numPlayers) {
+            this.wins = new long[numPlayers];
+        }
+
+        /**
+         * Adds one game's outcome.
+         *
+         * @param seat  the winner's seat, or -1 if nobody solved the mystery.
+         * @param turns how many turns the game took.
+         */
+        void record(int seat, int turns) {
+            if (seat < 0) {
+                unsolved++;
+            } else {
+                wins[seat]++;
+            }
+            this.games++;
+            this.turns += turns;
+        }
+
+        /**
+         * Adds every game from another set of tallies.
+         */
+        void add(Results other) {
+            for (int i = 0; i < wins.length; i++) {
+                wins[i] += other.wins[i];
+            }
+            unsolved += other.unsolved;
+            games    += other.games;
+            turns    += other.turns;
+        }
+
+        public long wins(int seat) { return wins[seat]; }
+        public long unsolved()     { return unsolved; }
+        public long games()        { return games; }
+        public long turns()        { return turns; }
+
+        /**
+         * Getter method for the average turns per game.
+         */
+        public double turnsPerGame() {
+            return games == 0 ? 0 : (double) turns / games;
+        }
+    }
+
+    /**
+     * Plays a tournament and prints its results.
+     *
+     * @param args games, players, threads, seed, a layout file ("-" for the
+     *             standard board), how many seconds apart to print the
+     *             game metrics (0 for never) and how many milliseconds seat
+     *             0's search bot gets per decision (0 for none), each optional.
+     */
+    public static void main(String[] args) throws InterruptedException, IOException {
+        long games   = args.length > 0 ? Long.parseLong(args[0])   : 10_000;
+        int players  = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int threads  = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long seed    = args.length > 3 ? Long.parseLong(args[3])   : System.nanoTime();
+        Layout layout = args.length > 4 && !args[4].equals("-")
+                ? LayoutLoader.load(java.nio.file.Path.of(args[4])) : Layout.standard();
+        long dump    = args.length > 5 ? Long.parseLong(args[5])   : 0;
+        long search  = args.length > 6 ? Long.parseLong(args[6])   : 0;
+
+        if (dump > 0) {
+            Metrics.global().dumpEvery(dump, System.out);
+        }
+        long start = System.nanoTime();
+        Tournament tournament = new Tournament(players, seed, layout);
+        tournament.setSearchBudget(search * 1_000_000);
+        Results results = tournament.play(games, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d games, %d players, %d threads, seed %d\n", games, players, threads, seed);
+        for (int seat = 0; seat < players; seat++) {
+            System.out.printf("Seat %d wins: %d\n", seat, results.wins(seat));
+        }
+        System.out.printf("Unsolved:     %d\n", results.unsolved());
+        System.out.printf("Turns/game:   %.1f\n", results.turnsPerGame());
+        System.out.printf("Games/sec:    %.0f\n", results.games() / seconds);
+        if (dump > 0) {
+            System.out.print(Metrics.global().snapshot());
+        }
+    }
+}
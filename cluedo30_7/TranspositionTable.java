@@ -0,0 +1,144 @@
+package cluedo30_7;
+
+/**
+ * The TranspositionTable class remembers what a search has already worked out
+ * about positions, keyed by their Zobrist hash, so a position reached again by
+ * moves in a different order isn't evaluated twice. It is a fixed number of
+ * buckets of two entries, each entry two longs, and never grows.
+ * <p>
+ * Threads searching in parallel share a table without locking. Each entry is
+ * stored as its data and its hash XOR its data, written separately; a reader
+ * only trusts an entry whose two words XOR back to the hash it asked for, so
+ * an entry half written by another thread reads as a miss rather than as
+ * someone else's result.
+ * <p>
+ * When a bucket is full the first entry keeps whichever of the two results
+ * came from the deeper search, unless it is from an earlier generation (see
+ * newGeneration()), and the second always takes the newest.
+ */
+public final class TranspositionTable {
+    /**
+     * What probe() returns when the position isn't in the table.
+     */
+    public static final long MISS = 0;
+
+    /*
+     * Entry data, from the lowest bit: the float value's 32 bits, a 16 bit
+     * depth, an 8 bit generation and a bit that is always set, so no stored
+     * entry is ever MISS.
+     */
+    private static final long PRESENT = 1L << 56;
+
+    private final long[] keys;  // [slot] hash ^ data.
+    private final long[] data;
+    private final int mask;     // Buckets - 1.
+    private int generation;
+
+    /**
+     * Constructs an empty table holding at least the given number of entries,
+     * rounded up to a power of two.
+     *
+     * @param entries how many positions to make room for.
+     * @throws IllegalArgumentException if entries is less than 2 or more than 2^30.
+     */
+    public TranspositionTable(int entries) {
+        if (entries < 2 || entries > 1 << 30) {
+            throw new IllegalArgumentException("entries must be from 2 to 2^30, was " + entries);
+        }
+        int slots = Integer.highestOneBit(entries - 1) << 1;
+        this.keys = new long[slots];
+        this.data = new long[slots];
+        this.mask = slots / 2 - 1;
+    }
+
+    /**
+     * Getter method for the number of entries the table has room for.
+     */
+    public int capacity() {
+        return data.length;
+    }
+
+    /**
+     * Looks a position up.
+     *
+     * @param hash the position's Zobrist hash.
+     * @return the entry stored for it, read with value() and depth(), or MISS.
+     */
+    public long probe(long hash) {
+        int slot = bucket(hash);
+        for (int i = slot; i < slot + 2; i++) {
+            long d = data[i];
+            if ((keys[i] ^ d) == hash && d != MISS) {
+                return d;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores what a search found out about a position.
+     *
+     * @param hash  the position's Zobrist hash.
+     * @param depth how far the search looked, or how many playouts it took;
+     *              deeper results are kept over shallower ones, up to 65535.
+     * @param value what the position is worth.
+     */
+    public void store(long hash, int depth, float value) {
+        long d = PRESENT | (long) generation << 48 | (long) Math.min(depth, 0xFFFF) << 32
+                | Float.floatToRawIntBits(value) & 0xFFFFFFFFL;
+        int slot = bucket(hash);
+        int replace;
+        if ((keys[slot] ^ data[slot]) == hash || data[slot] == MISS) {
+            replace = slot;
+        } else if ((keys[slot + 1] ^ data[slot + 1]) == hash) {
+            replace = slot + 1;
+        } else {
+            long first = data[slot];
+            boolean stale = generation(first) != generation;
+            replace = stale || depth >= depth(first) ? slot : slot + 1;
+        }
+        data[replace] = d;
+        keys[replace] = hash ^ d;
+    }
+
+    /**
+     * Starts a new generation, so results from earlier searches give way to
+     * those of the next one however deep they were. Call it before each search.
+     */
+    public void newGeneration() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * Forgets every entry.
+     */
+    public void clear() {
+        java.util.Arrays.fill(keys, 0);
+        java.util.Arrays.fill(data, 0);
+    }
+
+    /**
+     * Getter method for the value of an entry returned by probe().
+     */
+    public static float value(long entry) {
+        return Float.intBitsToFloat((int) entry);
+    }
+
+    /**
+     * Getter method for the depth of an entry returned by probe().
+     */
+    public static int depth(long entry) {
+        return (int) (entry >>> 32) & 0xFFFF;
+    }
+
+    private static int generation(long entry) {
+        return (int) (entry >>> 48) & 0xFF;
+    }
+
+    /**
+     * Returns the first slot of the bucket a hash belongs in.
+     */
+    private int bucket(long hash) {
+        return ((int) hash & mask) << 1;
+    }
+}
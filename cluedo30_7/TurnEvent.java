@@ -0,0 +1,32 @@
+package cluedo30_7;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The TurnEvent class covers one player's turn, from the roll to its end.
+ */
+@Name("cluedo30_7.Turn")
+@Label("Turn")
+@Category("Cluedo")
+@Description("One player's turn, from the roll to its last move or guess")
+@Enabled(false)
+@StackTrace(false)
+final class TurnEvent extends Event {
+    @Label("Game Id")
+    long gameId;
+
+    @Label("Turn")
+    int turn;
+
+    @Label("Player")
+    String player;
+
+    @Label("Roll")
+    int roll;
+}
@@ -0,0 +1,113 @@
+package cluedo30_7;
+
+import java.util.SplittableRandom;
+
+/**
+ * The Zobrist class holds the random keys a position is hashed with: one for
+ * each seat standing on each cell, each seat having seen each card, each seat
+ * having lost its solve attempt, and, for GameState, whose turn it is, how
+ * many moves they have left and who has won. A position's hash is the XOR of
+ * the keys true of it, so every change to it is one XOR out and one XOR in,
+ * whichever order the changes came in. Players in an estate all stand on its
+ * home cell, so those keys cover who is in each estate too.
+ * <p>
+ * The keys come from a fixed seed, so a position hashes the same in every run
+ * and on every layout of the same size. Hands and the solution never change
+ * during a game and aren't hashed; tables shouldn't be shared between deals.
+ */
+public final class Zobrist {
+    private static final long SEED = 0x436C7565646F3330L;
+    private static final int SEATS = 4;
+    private static final int CARDS = Card.values().length;
+
+    private static final long[] SEEN = new long[SEATS * CARDS];
+    private static final long[] SOLVED = new long[SEATS];  // The seat has used its solve attempt.
+    private static final long[] TO_MOVE = new long[SEATS];
+    private static final long[] WINNER = new long[SEATS];
+    private static final long[] MOVES_LEFT = new long[16];
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (long[] keys : new long[][] {SEEN, SOLVED, TO_MOVE, WINNER, MOVES_LEFT}) {
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = random.nextLong();
+            }
+        }
+    }
+
+    private final int numCells;
+    private final long[] cells; // [seat * numCells + cell]
+
+    /**
+     * Makes the cell keys for the given layout. Called once by the Layout.
+     */
+    Zobrist(Layout layout) {
+        this.numCells = layout.rows() * layout.cols();
+        this.cells = new long[SEATS * numCells];
+        SplittableRandom random = new SplittableRandom(SEED ^ numCells);
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Getter method for the key of a seat standing on a cell.
+     *
+     * @param seat the player's seat.
+     * @param i    the packed index of the cell, the estate's home cell if they're in one.
+     */
+    public long location(int seat, int i) {
+        return cells[seat * numCells + i];
+    }
+
+    /**
+     * Getter method for the key of a seat having seen a card.
+     */
+    public static long seen(int seat, Card card) {
+        return SEEN[seat * CARDS + card.ordinal()];
+    }
+
+    /**
+     * Getter method for the key of a seat having used its solve attempt.
+     */
+    public static long solved(int seat) {
+        return SOLVED[seat];
+    }
+
+    /**
+     * Getter method for the key of it being a seat's turn.
+     */
+    public static long toMove(int seat) {
+        return TO_MOVE[seat];
+    }
+
+    /**
+     * Getter method for the key of a seat having won.
+     */
+    public static long winner(int seat) {
+        return WINNER[seat];
+    }
+
+    /**
+     * Getter method for the key of the moves left this turn. Two dice never
+     * give more than 12, and larger counts share keys with smaller ones.
+     */
+    public static long movesLeft(int moves) {
+        return MOVES_LEFT[moves & 15];
+    }
+
+    /**
+     * Works out the hash of a set of seen cards from scratch.
+     *
+     * @param seat the seat that has seen them.
+     * @param seen the mask of the cards.
+     * @return the XOR of their keys.
+     */
+    public static long seen(int seat, int seen) {
+        long hash = 0;
+        for (int m = seen; m != 0; m &= m - 1) {
+            hash ^= seen(seat, Card.first(m));
+        }
+        return hash;
+    }
+}
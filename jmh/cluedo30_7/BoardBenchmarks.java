@@ -0,0 +1,64 @@
+package cluedo30_7;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The BoardBenchmarks class times building and drawing boards: a fresh board
+ * for a new game, printing one whole, and one renderer frame of a player
+ * stepping back and forth.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmarks {
+    private Layout layout;
+    private Board printed;
+    private Bots.Counter counter;
+    private Player runner;
+    private BoardRenderer frames;
+    private int from;
+    private boolean moved;
+
+    @Setup
+    public void setup() {
+        layout = Layout.standard();
+        printed = Bots.newGame(1).board();
+        counter = new Bots.Counter();
+        Game rendering = Bots.newGame(6);
+        runner = rendering.board().occupant(layout.start(0));
+        frames = new BoardRenderer(rendering.board(), counter);
+        from = runner.location();
+    }
+
+    @Benchmark
+    public Board construct() {
+        return new Board(layout);
+    }
+
+    @Benchmark
+    public long print() {
+        printed.print(counter);
+        return counter.chars;
+    }
+
+    @Benchmark
+    public long rendererFrame() {
+        moved = !moved;
+        runner.setPlayerLocation(runner.location(), moved ? from + 1 : from);
+        frames.render();
+        return counter.chars;
+    }
+}
@@ -0,0 +1,72 @@
+package cluedo30_7;
+
+import java.util.SplittableRandom;
+
+/**
+ * The Bots class makes the games and scripted bots the benchmarks play with.
+ */
+final class Bots {
+    private Bots() {
+    }
+
+    /**
+     * Makes a headless four player game of bots.
+     */
+    static Game newGame(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        return new Game(new RandomDecisions(4, random.split()), EventSink.NONE, random);
+    }
+
+    /**
+     * A sink that only counts the characters printed to it, so printing
+     * can be timed without a terminal.
+     */
+    static final class Counter implements EventSink {
+        long chars;
+
+        @Override
+        public void print(String text) {
+            chars += text.length();
+        }
+    }
+
+    /**
+     * A bot that walks one step right, then one step left, forever.
+     */
+    static final class Walker extends RandomDecisions {
+        private boolean right;
+
+        Walker() {
+            super(4, 0);
+        }
+
+        @Override
+        public String path(Player player, int movesLeft, int attempt) {
+            right = !right;
+            return right ? "d" : "a";
+        }
+    }
+
+    /**
+     * A bot that steps in a random direction every move, in and out of
+     * estates, without ever stopping to guess.
+     */
+    static final class Wanderer extends RandomDecisions {
+        private static final String[] PATHS = {"w", "a", "s", "d"};
+        private final SplittableRandom random = new SplittableRandom(11);
+
+        Wanderer() {
+            super(4, 0);
+        }
+
+        @Override
+        public String path(Player player, int movesLeft, int attempt) {
+            return PATHS[random.nextInt(PATHS.length)];
+        }
+
+        @Override
+        public char guessOrSolve(Player player, int movesLeft) {
+            return 'c';
+        }
+    }
+}
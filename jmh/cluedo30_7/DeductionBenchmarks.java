@@ -0,0 +1,73 @@
+package cluedo30_7;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The DeductionBenchmarks class times Deduction.observe() by replaying the
+ * same 64 guesses, truthfully refuted, from seat 0's point of view, starting
+ * over from its own hand after the last of them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DeductionBenchmarks {
+    private static final int GUESSES = 64;
+
+    private Deduction deduction;
+    private final int[] guessers = new int[GUESSES];
+    private final int[] guesses = new int[GUESSES];
+    private final int[] refuters = new int[GUESSES];
+    private final Card[] alibis = new Card[GUESSES];
+    private int next;
+
+    @Setup
+    public void setup() {
+        Game deducing = Bots.newGame(8);
+        int[] sizes = new int[deducing.numPlayers()];
+        for (int p = 0; p < sizes.length; p++) {
+            sizes[p] = Integer.bitCount(deducing.player(p).hand());
+        }
+        deduction = new Deduction(sizes, 0, deducing.player(0).hand());
+        SplittableRandom guessing = new SplittableRandom(8);
+        for (int g = 0; g < GUESSES; g++) {
+            guessers[g] = guessing.nextInt(sizes.length);
+            guesses[g] = Card.of(guessing.nextInt(4)).mask() | Card.of(4 + guessing.nextInt(5)).mask()
+                    | Card.of(9 + guessing.nextInt(5)).mask();
+            for (int p = 0; p < sizes.length; p++) {
+                int matching = deducing.player(p).hand() & guesses[g];
+                if (p != guessers[g] && matching != 0) {
+                    if (refuters[g] == 0) {
+                        alibis[g] = Card.first(matching);
+                    }
+                    refuters[g] |= 1 << p;
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void observe(Blackhole blackhole) {
+        int g = next;
+        next = (next + 1) & (GUESSES - 1);
+        if (g == 0) {
+            deduction.reset();
+        }
+        deduction.observe(guessers[g], guesses[g], refuters[g], alibis[g]);
+        blackhole.consume(deduction.candidates());
+    }
+}
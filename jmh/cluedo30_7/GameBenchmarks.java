@@ -0,0 +1,63 @@
+package cluedo30_7;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The GameBenchmarks class times a game's bookkeeping: refuting a guess,
+ * dealing the cards, and playing a whole game of bots from the deal.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmarks {
+    private Game refuting;
+    private Player guesser;
+    private int guess;
+    private Layout layout;
+    private long dealSeed;
+    private long seed;
+
+    @Setup
+    public void setup() {
+        refuting = Bots.newGame(4);
+        guesser = refuting.board().occupant(Layout.standard().start(0));
+        guess = Card.LUCILLA.mask() | Card.KNIFE.mask() | Card.HAUNTED_HOUSE.mask();
+        layout = Layout.standard();
+    }
+
+    @Benchmark
+    public Card refute() {
+        return refuting.refute(guesser, guess);
+    }
+
+    /**
+     * Deals with GameState.deal(), which deals the same way Game does but
+     * into a new state each time. Game.getGlobalSolution() adds to the hands
+     * of the game it is called on, so repeating it would time a game every
+     * earlier call had changed.
+     */
+    @Benchmark
+    public GameState deal() {
+        return GameState.deal(layout, 4, dealSeed++);
+    }
+
+    @Benchmark
+    public int play() {
+        Game game = Bots.newGame(seed++);
+        game.clock(game.random().nextInt(game.numPlayers()));
+        return game.turns();
+    }
+}
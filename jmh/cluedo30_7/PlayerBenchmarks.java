@@ -0,0 +1,67 @@
+package cluedo30_7;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import static cluedo30_7.Board.Direction;
+
+/**
+ * The PlayerBenchmarks class times a player's moves: one step along the path
+ * back and forth, a random step that wanders in and out of estates, and
+ * leaving an estate by one of its exits.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayerBenchmarks {
+    private Player walker;
+    private Player wanderer;
+    private Player visitor;
+    private Estate house;
+    private int entrance;
+
+    @Setup
+    public void setup() {
+        Layout layout = Layout.standard();
+        walker = new Game(new Bots.Walker(), EventSink.NONE, new SplittableRandom(2))
+                .board().occupant(layout.start(0));
+        wanderer = new Game(new Bots.Wanderer(), EventSink.NONE, new SplittableRandom(7))
+                .board().occupant(layout.start(0));
+        visitor = Bots.newGame(3).board().occupant(layout.start(0));
+        house = layout.estates()[0];
+        entrance = layout.index(house.entrances().get(0).row(), house.entrances().get(0).column());
+        visitor.setPlayerLocation(visitor.location(), entrance);
+    }
+
+    @Benchmark
+    public int step() {
+        walker.turn(1);
+        return walker.location();
+    }
+
+    @Benchmark
+    public int randomStep() {
+        wanderer.turn(1);
+        return wanderer.location();
+    }
+
+    @Benchmark
+    public int estateMove() {
+        house.move(visitor, Direction.DOWN);
+        int location = visitor.location();
+        visitor.setPlayerLocation(location, entrance);
+        return location;
+    }
+}